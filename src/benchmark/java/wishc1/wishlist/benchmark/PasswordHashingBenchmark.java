@@ -0,0 +1,62 @@
+package wishc1.wishlist.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import wishc1.wishlist.security.PooledPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password hashing throughput per BCrypt work factor, hashing on the calling threads ("direct")
+ * and on the bounded pool used by the application ("pooled"). Eight caller threads stand in for
+ * a burst of logins; the pooled numbers show the throughput the pool allows while leaving the
+ * other cores free.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(8)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "password123";
+
+    @Param({"10", "12"})
+    private int strength;
+
+    @Param({"direct", "pooled"})
+    private String encoder;
+
+    private PasswordEncoder passwordEncoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        passwordEncoder = encoder.equals("pooled") ? new PooledPasswordEncoder(bcrypt, threads, 100) : bcrypt;
+        hash = bcrypt.encode(PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (passwordEncoder instanceof PooledPasswordEncoder pooled) {
+            pooled.destroy();
+        }
+    }
+
+    // Registration
+    @Benchmark
+    public String encode() {
+        return passwordEncoder.encode(PASSWORD);
+    }
+
+    // Login
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches(PASSWORD, hash);
+    }
+}
@@ -0,0 +1,213 @@
+package wishc1.wishlist.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import wishc1.wishlist.WishlistApplication;
+import wishc1.wishlist.dto.KeysetPage;
+import wishc1.wishlist.dto.WishListSummary;
+import wishc1.wishlist.model.AppUser;
+import wishc1.wishlist.model.SharedWishListEntry;
+import wishc1.wishlist.model.Wish;
+import wishc1.wishlist.model.WishList;
+import wishc1.wishlist.repository.AppUserRepository;
+import wishc1.wishlist.repository.WishListFetchPlan;
+import wishc1.wishlist.service.AppUserService;
+import wishc1.wishlist.service.WishListService;
+import wishc1.wishlist.service.WishService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Throughput of the service methods behind the profile, shared and wish pages, against an
+ * in-memory H2 database seeded with {@code size} wishlists of five wishes each. All of them are
+ * shared with one viewer, and the first one with {@code size} more users. Each fork starts the
+ * application without a web server on a fresh database.
+ * <p>
+ * BCrypt runs at work factor 4, so saveUser measures the insert and the user indexes rather than
+ * the hashing; PasswordHashingBenchmark covers that. The write benchmarks keep adding rows, so the
+ * database grows during the run.
+ * <p>
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=wishc1.wishlist.benchmark.ServiceLayerBenchmark
+ * It adds the GC profiler, so each result has its allocation rate (gc.alloc.rate.norm, bytes per
+ * operation), and writes the results to target/jmh-service-layer.json for comparison with earlier
+ * runs. JMH options in -Djmh.args apply on top, e.g. "-p size=1000 getWishListsByOwner".
+ * <p>
+ * The read benchmarks call what the profile page calls: one page of the owner's wishlists, first
+ * and from a cursor halfway through, and the viewer's inbox of shared wishlists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class ServiceLayerBenchmark {
+
+    private static final int WISHES_PER_LIST = 5;
+    private static final int WISHES_PER_BATCH = 20;
+    private static final int RECIPIENTS = 100;
+    // The profile page size
+    private static final int PAGE_SIZE = 20;
+    // The seeded users never log in, so they are saved directly without hashing a password
+    private static final String UNUSED_PASSWORD = "not-a-hash";
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private WishListService wishListService;
+    private WishService wishService;
+    private AppUserService appUserService;
+    private AppUser owner;
+    private AppUser viewer;
+    private Long sharedWishListId;
+    private String middleCursor;
+    private List<AppUser> recipients;
+    private int registered;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(ServiceLayerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-service-layer.json")
+                .build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        // DevTools is on the test classpath, keep it from restarting the context
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(WishlistApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--spring.datasource.url=jdbc:h2:mem:services-" + size + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--wishlist.password.bcrypt-strength=4",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.springframework.security=WARN");
+        wishListService = context.getBean(WishListService.class);
+        wishService = context.getBean(WishService.class);
+        appUserService = context.getBean(AppUserService.class);
+        seed(context.getBean(AppUserRepository.class));
+    }
+
+    private void seed(AppUserRepository appUserRepository) {
+        owner = appUserRepository.save(user("owner"));
+        viewer = appUserRepository.save(user("viewer"));
+        List<AppUser> viewers = appUserRepository.saveAll(
+                IntStream.range(0, size).mapToObj(i -> user("viewer" + i)).toList());
+        recipients = appUserRepository.saveAll(
+                IntStream.range(0, RECIPIENTS).mapToObj(i -> user("recipient" + i)).toList());
+
+        List<Long> wishListIds = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            wishListIds.add(wishListService.saveWishList(wishList(i)).getId());
+        }
+        wishListService.shareWishListsWithUsers(wishListIds, List.of(viewer.getId()));
+        sharedWishListId = wishListIds.get(0);
+        wishListService.shareWishListsWithUsers(List.of(sharedWishListId),
+                viewers.stream().map(AppUser::getId).toList());
+        middleCursor = wishListService.getWishListsByOwner(owner.getId(), null, size / 2).nextCursor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public KeysetPage<WishListSummary> getWishListsByOwner() {
+        return wishListService.getWishListsByOwner(owner.getId(), null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public KeysetPage<WishListSummary> getWishListsByOwnerAfterCursor() {
+        return wishListService.getWishListsByOwner(owner.getId(), middleCursor, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<SharedWishListEntry> getSharedWishListInbox() {
+        return wishListService.getSharedWishListInbox(viewer.getId());
+    }
+
+    @Benchmark
+    public WishList saveWishList() {
+        return wishListService.saveWishList(wishList(size));
+    }
+
+    // Shares the first wishlist, which already has size + 1 viewers, with a user it is not shared with
+    @Benchmark
+    public void shareWishListWithUser(ShareState share) {
+        wishListService.shareWishListWithUser(share.wishList, share.recipient);
+    }
+
+    @Benchmark
+    public void addWishes() {
+        LocalDateTime addedDate = LocalDateTime.now();
+        wishService.addWishes(IntStream.range(0, WISHES_PER_BATCH)
+                .mapToObj(i -> new Wish("Wish " + i, "Added in a batch", addedDate))
+                .toList());
+    }
+
+    @Benchmark
+    public AppUser saveUser() {
+        String name = "user" + registered++;
+        return appUserService.saveUser(new AppUser(name + "@example.com", "password123", name));
+    }
+
+    private WishList wishList(int number) {
+        WishList wishList = new WishList("Event " + number, LocalDate.of(2024, 1, 1).plusDays(number % 365), owner);
+        LocalDateTime addedDate = LocalDateTime.now();
+        for (int i = 0; i < WISHES_PER_LIST; i++) {
+            wishList.addWish(new Wish("Wish " + i, "Wish " + i + " on list " + number, addedDate));
+        }
+        return wishList;
+    }
+
+    private static AppUser user(String name) {
+        return new AppUser(name + "@example.com", UNUSED_PASSWORD, name);
+    }
+
+    /**
+     * The wishlist to share, loaded with its viewers the way the share endpoint loads it, and the
+     * next recipient. The share is undone after each call, outside the measurement.
+     */
+    @State(Scope.Thread)
+    public static class ShareState {
+
+        private WishList wishList;
+        private AppUser recipient;
+        private int next;
+
+        @Setup(Level.Invocation)
+        public void load(ServiceLayerBenchmark benchmark) {
+            wishList = benchmark.loadSharedWishList();
+            recipient = benchmark.recipients.get(next++ % benchmark.recipients.size());
+        }
+
+        @TearDown(Level.Invocation)
+        public void unshare(ServiceLayerBenchmark benchmark) {
+            benchmark.wishListService.unshareWishListWithUser(benchmark.loadSharedWishList(), recipient);
+        }
+    }
+
+    private WishList loadSharedWishList() {
+        return wishListService.getWishListById(sharedWishListId, WishListFetchPlan.WITH_VIEWERS).orElseThrow();
+    }
+}
@@ -0,0 +1,347 @@
+package wishc1.wishlist.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import wishc1.wishlist.WishlistApplication;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives the main user journey over HTTP with many concurrent clients for a fixed time and reports
+ * the latency percentiles and error rate of every step, to find the request rate one node sustains.
+ * Each journey registers a new user, logs in, builds a wishlist from a catalog wish through
+ * /wishlists/new and /wishlists/addReadyWish, creates it, finds it on the profile page, shares it
+ * with the client's viewer through /wishlists/shareSelected, and has the viewer open it through
+ * /wishlists/shared/{id}/view. A failed step ends the journey; the next one starts over.
+ * <p>
+ * By default the application is started in this JVM on the test profile with an in-memory H2
+ * database, on a random local port. Set load.url to drive an application that is already running.
+ * <p>
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=wishc1.wishlist.benchmark.UserJourneyLoadTest
+ * Tune the load with the load.* system properties below, for example
+ * -Dbenchmark.jvmArgs="-Dload.concurrency=200 -Dload.duration-seconds=120".
+ */
+public class UserJourneyLoadTest {
+
+    private static final String URL = System.getProperty("load.url");
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 50);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration-seconds", 60);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 10);
+    private static final int BCRYPT_STRENGTH = Integer.getInteger("load.bcrypt-strength", 10);
+
+    private static final Pattern WISH_OPTION = Pattern.compile("<option value=\"(\\d+)\"");
+    private static final Pattern WISHLIST_LINK = Pattern.compile("/wishlists/(\\d+)/wishes\"");
+
+    // Usernames stay unique across runs against the same application
+    private static final String RUN = Long.toString(System.currentTimeMillis(), 36);
+    private static final AtomicLong USERS = new AtomicLong();
+
+    private enum Step {
+        REGISTER("POST /register"),
+        LOGIN("POST /login"),
+        NEW_WISHLIST("GET /wishlists/new"),
+        ADD_READY_WISH("POST /wishlists/addReadyWish"),
+        CREATE_WISHLIST("POST /wishlists/create"),
+        PROFILE("GET /wishlists/profile"),
+        SHARE("POST /wishlists/shareSelected"),
+        VIEW_SHARED("GET /wishlists/shared/{id}/view");
+
+        private final String label;
+
+        Step(String label) {
+            this.label = label;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        // DevTools is on the test classpath, keep it from restarting the context and disabling template caching
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        System.setProperty("spring.devtools.add-properties", "false");
+        System.out.printf("concurrency=%d duration=%ds warmup=%ds%n", CONCURRENCY, DURATION_SECONDS, WARMUP_SECONDS);
+        if (URL != null) {
+            System.out.println(run(URL));
+            return;
+        }
+        System.out.printf("bcrypt-strength=%d%n", BCRYPT_STRENGTH);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WishlistApplication.class)
+                .profiles("test")
+                // Command line arguments, so they win over application.properties
+                .run("--server.port=0",
+                        "--management.server.port=0",
+                        "--server.tomcat.accept-count=" + CONCURRENCY,
+                        "--spring.datasource.url=jdbc:h2:mem:journey;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--wishlist.password.bcrypt-strength=" + BCRYPT_STRENGTH,
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.springframework.security=WARN")) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            System.out.println(run("http://localhost:" + port));
+        }
+    }
+
+    private static Result run(String base) throws Exception {
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder().executor(clients).build()) {
+            addCatalogWish(new Client(http, base, new Stats()));
+            List<Viewer> viewers = logInViewers(http, clients, base);
+            load(http, clients, base, viewers, WARMUP_SECONDS);
+            return load(http, clients, base, viewers, DURATION_SECONDS);
+        }
+    }
+
+    // The wishlists are built from the wish catalog, which needs at least one wish. Not measured,
+    // the client records into statistics of its own
+    private static void addCatalogWish(Client client) throws Exception {
+        String session = client.registerAndLogIn(client.nextUsername());
+        client.send(Step.NEW_WISHLIST, form(client.base + "/wishes/ready", session,
+                "name=Board game&description=For the holidays"), 302);
+        client.send(Step.NEW_WISHLIST, form(client.base + "/wishes/addAll", session, ""), 302);
+    }
+
+    // One viewer per client, sharing a session would serialize the clients on its row in the session table
+    private static List<Viewer> logInViewers(HttpClient http, ExecutorService clients, String base) throws Exception {
+        List<Future<Viewer>> logins = new ArrayList<>();
+        for (int i = 0; i < CONCURRENCY; i++) {
+            logins.add(clients.submit(() -> {
+                Client client = new Client(http, base, new Stats());
+                String username = client.nextUsername();
+                return new Viewer(username, client.registerAndLogIn(username));
+            }));
+        }
+        List<Viewer> viewers = new ArrayList<>();
+        for (Future<Viewer> login : logins) {
+            viewers.add(login.get());
+        }
+        return viewers;
+    }
+
+    private static Result load(HttpClient http, ExecutorService clients, String base, List<Viewer> viewers, int seconds)
+            throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        Stats stats = new Stats();
+        List<Future<?>> running = new ArrayList<>();
+        for (Viewer viewer : viewers) {
+            Client client = new Client(http, base, stats);
+            running.add(clients.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    try {
+                        client.journey(viewer);
+                        stats.journeys.incrementAndGet();
+                    } catch (StepFailedException e) {
+                        // Counted as an error of the step, start the next journey
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> client : running) {
+            client.get();
+        }
+        return Result.of(stats, seconds);
+    }
+
+    private static HttpRequest form(String url, String session, String body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (session != null) {
+            request.header("Cookie", session);
+        }
+        return request.build();
+    }
+
+    private static HttpRequest get(String url, String session) {
+        return HttpRequest.newBuilder(URI.create(url)).header("Cookie", session).build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * One simulated user at a time, sending the requests of a journey one after the other.
+     */
+    private static class Client {
+
+        private final HttpClient http;
+        private final String base;
+        private final Stats stats;
+
+        Client(HttpClient http, String base, Stats stats) {
+            this.http = http;
+            this.base = base;
+            this.stats = stats;
+        }
+
+        void journey(Viewer viewer) throws StepFailedException {
+            String username = nextUsername();
+            String session = registerAndLogIn(username);
+
+            String picker = send(Step.NEW_WISHLIST, get(base + "/wishlists/new", session), 200).body();
+            String wishId = find(Step.NEW_WISHLIST, WISH_OPTION, picker);
+            send(Step.ADD_READY_WISH, form(base + "/wishlists/addReadyWish", session, "wishId=" + wishId), 302);
+            String eventName = "Party of " + username;
+            send(Step.CREATE_WISHLIST, form(base + "/wishlists/create", session,
+                    "eventName=" + encode(eventName) + "&eventDate=2024-12-24"), 302);
+
+            String profile = send(Step.PROFILE, get(base + "/wishlists/profile", session), 200).body();
+            String wishListId = find(Step.PROFILE, WISHLIST_LINK, profile);
+            send(Step.SHARE, form(base + "/wishlists/shareSelected", session,
+                    "wishListIds=" + wishListId + "&recipientUsernames=" + encode(viewer.username())), 302);
+
+            // A wishlist that is not shared is answered with an error page, also with 200
+            String view = send(Step.VIEW_SHARED, get(base + "/wishlists/shared/" + wishListId + "/view",
+                    viewer.session()), 200).body();
+            if (!view.contains(eventName)) {
+                throw stats.failed(Step.VIEW_SHARED);
+            }
+        }
+
+        String nextUsername() {
+            return "load" + RUN + USERS.incrementAndGet();
+        }
+
+        // The session cookie of the new user
+        String registerAndLogIn(String username) throws StepFailedException {
+            String email = username + "@example.com";
+            send(Step.REGISTER, form(base + "/register", null,
+                    "email=" + encode(email) + "&password=password123&username=" + username), 302);
+            HttpResponse<String> login = send(Step.LOGIN, form(base + "/login", null,
+                    "username=" + encode(email) + "&password=password123"), 302);
+            if (login.headers().firstValue("Location").orElse("").contains("error")) {
+                throw stats.failed(Step.LOGIN);
+            }
+            return login.headers().allValues("Set-Cookie").stream()
+                    .filter(cookie -> cookie.startsWith("SESSION="))
+                    .map(cookie -> cookie.substring(0, cookie.indexOf(';')))
+                    .findFirst()
+                    .orElseThrow(() -> stats.failed(Step.LOGIN));
+        }
+
+        HttpResponse<String> send(Step step, HttpRequest request, int expectedStatus) throws StepFailedException {
+            long start = System.nanoTime();
+            HttpResponse<String> response;
+            try {
+                response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            } catch (Exception e) {
+                stats.record(step, System.nanoTime() - start);
+                throw stats.failed(step);
+            }
+            stats.record(step, System.nanoTime() - start);
+            if (response.statusCode() != expectedStatus) {
+                throw stats.failed(step);
+            }
+            return response;
+        }
+
+        private String find(Step step, Pattern pattern, String body) throws StepFailedException {
+            Matcher matcher = pattern.matcher(body);
+            if (!matcher.find()) {
+                throw stats.failed(step);
+            }
+            return matcher.group(1);
+        }
+    }
+
+    private record Viewer(String username, String session) {
+    }
+
+    private static class StepFailedException extends Exception {
+
+        StepFailedException(Step step) {
+            super(step.label, null, false, false);
+        }
+    }
+
+    /**
+     * The latencies and errors of every step, recorded by all clients of one run.
+     */
+    private static class Stats {
+
+        private final Map<Step, ConcurrentLinkedQueue<Long>> latencies = new EnumMap<>(Step.class);
+        private final Map<Step, AtomicLong> errors = new EnumMap<>(Step.class);
+        private final AtomicLong journeys = new AtomicLong();
+
+        Stats() {
+            for (Step step : Step.values()) {
+                latencies.put(step, new ConcurrentLinkedQueue<>());
+                errors.put(step, new AtomicLong());
+            }
+        }
+
+        void record(Step step, long nanos) {
+            latencies.get(step).add(nanos);
+        }
+
+        StepFailedException failed(Step step) {
+            errors.get(step).incrementAndGet();
+            return new StepFailedException(step);
+        }
+    }
+
+    private record StepResult(Step step, long requests, long errors, double p50Millis, double p90Millis,
+                              double p99Millis, double maxMillis) {
+
+        static StepResult of(Step step, Stats stats) {
+            long[] sorted = stats.latencies.get(step).stream().mapToLong(Long::longValue).sorted().toArray();
+            long errors = stats.errors.get(step).get();
+            if (sorted.length == 0) {
+                return new StepResult(step, 0, errors, 0, 0, 0, 0);
+            }
+            return new StepResult(step, sorted.length, errors, percentile(sorted, 0.5), percentile(sorted, 0.9),
+                    percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            return sorted[Math.min(sorted.length - 1, (int) (sorted.length * percentile))] / 1e6;
+        }
+
+        String format(int seconds) {
+            return String.format("%-32s %9d %7.0f %6.2f%% %9.1f %9.1f %9.1f %9.1f", step.label, requests,
+                    (double) requests / seconds, requests == 0 ? 0 : 100.0 * errors / requests,
+                    p50Millis, p90Millis, p99Millis, maxMillis);
+        }
+    }
+
+    private record Result(long journeys, int seconds, List<StepResult> steps) {
+
+        static Result of(Stats stats, int seconds) {
+            List<StepResult> steps = new ArrayList<>();
+            for (Step step : Step.values()) {
+                steps.add(StepResult.of(step, stats));
+            }
+            return new Result(stats.journeys.get(), seconds, steps);
+        }
+
+        @Override
+        public String toString() {
+            long requests = steps.stream().mapToLong(StepResult::requests).sum();
+            long errors = steps.stream().mapToLong(StepResult::errors).sum();
+            StringBuilder table = new StringBuilder(String.format("%-32s %9s %7s %7s %9s %9s %9s %9s%n",
+                    "step", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+            steps.forEach(step -> table.append(step.format(seconds)).append('\n'));
+            return table.append(String.format("%.1f journeys/s, %.0f req/s (%d requests, %d errors)",
+                    (double) journeys / seconds, (double) requests / seconds, requests, errors)).toString();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package wishc1.wishlist.benchmark;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import wishc1.wishlist.WishlistApplication;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares request throughput with Tomcat on platform threads and on virtual threads while every
+ * SQL statement takes a fixed extra time, standing in for a slow database. Each mode starts the
+ * application on the test profile, logs one user in and lets many concurrent clients load the
+ * profile page for a fixed time.
+ * <p>
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=wishc1.wishlist.benchmark.VirtualThreadLoadTest
+ * Pass -Djmh.args="virtual" to run one mode only, and tune the load with the load.* system properties
+ * below, for example -Dbenchmark.jvmArgs="-Dload.concurrency=2000 -Dload.db-latency-millis=50".
+ */
+public class VirtualThreadLoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 1000);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration-seconds", 15);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 5);
+    private static final int DB_LATENCY_MILLIS = Integer.getInteger("load.db-latency-millis", 25);
+    private static final int TOMCAT_THREADS = Integer.getInteger("load.tomcat-threads", 200);
+    private static final int POOL_SIZE = Integer.getInteger("load.pool-size", 400);
+
+    public static void main(String[] args) throws Exception {
+        // DevTools is on the test classpath, keep it from restarting the context and disabling template caching
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        System.setProperty("spring.devtools.add-properties", "false");
+        List<String> modes = args.length > 0 ? Arrays.asList(args) : List.of("platform", "virtual");
+        System.out.printf("concurrency=%d duration=%ds db-latency=%dms tomcat-threads=%d pool-size=%d%n",
+                CONCURRENCY, DURATION_SECONDS, DB_LATENCY_MILLIS, TOMCAT_THREADS, POOL_SIZE);
+        for (String mode : modes) {
+            System.out.println(mode + ": " + run(mode.equals("virtual")));
+        }
+    }
+
+    private static Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WishlistApplication.class)
+                .profiles("test")
+                .initializers(applicationContext -> applicationContext.getBeanFactory()
+                        .addBeanPostProcessor(new SlowDatabase(DB_LATENCY_MILLIS)))
+                // Command line arguments, so they win over application.properties
+                .run("--server.port=0",
+                        "--management.server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "--server.tomcat.accept-count=" + CONCURRENCY,
+                        "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--wishlist.password.bcrypt-strength=4",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.springframework.security=WARN")) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+                 HttpClient http = HttpClient.newBuilder().executor(clients).build()) {
+                String base = "http://localhost:" + port;
+                List<String> sessions = logIn(http, clients, base);
+                load(http, clients, base, sessions, WARMUP_SECONDS);
+                return load(http, clients, base, sessions, DURATION_SECONDS);
+            }
+        }
+    }
+
+    // One session per client, sharing a session would serialize the clients on its row in the session table
+    private static List<String> logIn(HttpClient http, ExecutorService clients, String base) throws Exception {
+        http.send(form(base + "/register", "email=load@example.com&password=password123&username=load"),
+                HttpResponse.BodyHandlers.discarding());
+        List<Future<String>> logins = new ArrayList<>();
+        for (int i = 0; i < CONCURRENCY; i++) {
+            logins.add(clients.submit(() -> {
+                HttpResponse<Void> login = http.send(form(base + "/login", "username=load@example.com&password=password123"),
+                        HttpResponse.BodyHandlers.discarding());
+                return login.headers().allValues("Set-Cookie").stream()
+                        .filter(cookie -> cookie.startsWith("SESSION="))
+                        .map(cookie -> cookie.substring(0, cookie.indexOf(';')))
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalStateException("Login failed: " + login.statusCode()));
+            }));
+        }
+        List<String> sessions = new ArrayList<>();
+        for (Future<String> login : logins) {
+            sessions.add(login.get());
+        }
+        return sessions;
+    }
+
+    private static Result load(HttpClient http, ExecutorService clients, String base, List<String> sessions, int seconds)
+            throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+
+        List<Future<?>> running = new ArrayList<>();
+        for (String session : sessions) {
+            HttpRequest profile = HttpRequest.newBuilder(URI.create(base + "/wishlists/profile"))
+                    .header("Cookie", session)
+                    .build();
+            running.add(clients.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = http.send(profile, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies.add(System.nanoTime() - start);
+                }
+            }));
+        }
+        for (Future<?> client : running) {
+            client.get();
+        }
+        return Result.of(latencies, errors.get(), seconds);
+    }
+
+    private static HttpRequest form(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private record Result(long requests, long errors, double throughput, double p50Millis, double p99Millis) {
+
+        static Result of(ConcurrentLinkedQueue<Long> latencies, long errors, int seconds) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            if (sorted.length == 0) {
+                return new Result(0, errors, 0, 0, 0);
+            }
+            return new Result(sorted.length, errors, (double) sorted.length / seconds,
+                    sorted[sorted.length / 2] / 1e6, sorted[(int) (sorted.length * 0.99)] / 1e6);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f req/s, p50 %.1f ms, p99 %.1f ms (%d requests, %d errors)",
+                    throughput, p50Millis, p99Millis, requests, errors);
+        }
+    }
+
+    /**
+     * Delays every statement execution, wrapping the connections handed out by the pool.
+     */
+    private record SlowDatabase(long latencyMillis) implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource) {
+                return proxy(DataSource.class, dataSource, (target, method, args) -> {
+                    Object result = invoke(method, target, args);
+                    return result instanceof Connection connection ? slowConnection(connection) : result;
+                });
+            }
+            return bean;
+        }
+
+        private Connection slowConnection(Connection connection) {
+            return proxy(Connection.class, connection, (target, method, args) -> {
+                Object result = invoke(method, target, args);
+                return result instanceof Statement statement ? slowStatement(statement) : result;
+            });
+        }
+
+        private Statement slowStatement(Statement statement) {
+            return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), allInterfaces(statement),
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("execute")) {
+                            Thread.sleep(latencyMillis);
+                        }
+                        return invoke(method, statement, args);
+                    });
+        }
+
+        private static Class<?>[] allInterfaces(Object target) {
+            List<Class<?>> interfaces = new ArrayList<>();
+            for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+                interfaces.addAll(Arrays.asList(type.getInterfaces()));
+            }
+            return interfaces.stream().filter(type -> type.getName().startsWith("java.sql.")).distinct()
+                    .toArray(Class<?>[]::new);
+        }
+
+        private static <T> T proxy(Class<T> type, T target, TargetHandler<T> handler) {
+            InvocationHandler invocationHandler = (proxy, method, args) -> handler.invoke(target, method, args);
+            return type.cast(Proxy.newProxyInstance(SlowDatabase.class.getClassLoader(), new Class<?>[]{type},
+                    invocationHandler));
+        }
+
+        private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private interface TargetHandler<T> {
+            Object invoke(T target, Method method, Object[] args) throws Throwable;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package wishc1.wishlist.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import wishc1.wishlist.WishlistApplication;
+import wishc1.wishlist.dto.WishImportProgress;
+import wishc1.wishlist.service.ExportFormat;
+import wishc1.wishlist.service.WishImportService;
+import wishc1.wishlist.service.WishService;
+
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Imports a generated upload of 100,000 wishes into an in-memory H2 database, once per batch size,
+ * and reports the throughput and the peak heap use of each run. Every run starts the application
+ * without a web server on a fresh database; the upload is written to a temporary file first, the
+ * way a multipart upload reaches the import.
+ * <p>
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=wishc1.wishlist.benchmark.WishImportBenchmark
+ * Pass the batch sizes as -Djmh.args="100 500 2000", and -Dbenchmark.jvmArgs="-Dimport.rows=1000000 -Dimport.format=JSON"
+ * to change the upload.
+ */
+public class WishImportBenchmark {
+
+    private static final int ROWS = Integer.getInteger("import.rows", 100_000);
+    private static final ExportFormat FORMAT = ExportFormat.valueOf(System.getProperty("import.format", "CSV"));
+
+    public static void main(String[] args) throws Exception {
+        // DevTools is on the test classpath, keep it from restarting the context
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        List<Integer> batchSizes = args.length > 0
+                ? Arrays.stream(args).map(Integer::valueOf).toList()
+                : List.of(100, 500, 2000);
+
+        Path upload = Files.createTempFile("wishes", "." + FORMAT.getFileExtension());
+        try {
+            writeUpload(upload);
+            System.out.printf("rows=%d format=%s upload=%d KiB max-heap=%d MiB%n", ROWS, FORMAT,
+                    Files.size(upload) / 1024, Runtime.getRuntime().maxMemory() / (1024 * 1024));
+            for (int batchSize : batchSizes) {
+                System.out.println("batch-size " + batchSize + ": " + run(upload, batchSize));
+            }
+        } finally {
+            Files.delete(upload);
+        }
+    }
+
+    private static String run(Path upload, int batchSize) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WishlistApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--spring.datasource.url=jdbc:h2:mem:import-" + batchSize + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.springframework.security=WARN")) {
+            WishImportService importService = new WishImportService(context.getBean(WishService.class), batchSize);
+
+            System.gc();
+            List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP)
+                    .toList();
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+            WishImportProgress result;
+            try (InputStream in = Files.newInputStream(upload)) {
+                result = importService.importWishes(in, FORMAT, null, progress -> { });
+            }
+            long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+            return String.format("%.0f rows/s, %d ms, %d imported, %d rejected, peak heap %d MiB",
+                    result.rowsPerSecond(), result.elapsedMillis(), result.imported(), result.rejected(),
+                    peakHeap / (1024 * 1024));
+        }
+    }
+
+    // Every 1000th row has no name, so validation and error reporting are part of the measurement
+    private static void writeUpload(Path upload) throws Exception {
+        try (BufferedWriter out = Files.newBufferedWriter(upload, StandardCharsets.UTF_8)) {
+            out.write(FORMAT == ExportFormat.CSV ? "name,description,addedDate\n" : "[\n");
+            LocalDate day = LocalDate.of(2024, 1, 1);
+            for (int i = 1; i <= ROWS; i++) {
+                String name = i % 1000 == 0 ? "" : "Wish " + i;
+                String description = "Imported wish number " + i + ", from a spreadsheet";
+                String addedDate = day.plusDays(i % 365).toString();
+                if (FORMAT == ExportFormat.CSV) {
+                    out.write(name + ",\"" + description + "\"," + addedDate + "\n");
+                } else {
+                    out.write((i > 1 ? "," : "") + "{\"name\":\"" + name + "\",\"description\":\"" + description
+                            + "\",\"addedDate\":\"" + addedDate + "\"}\n");
+                }
+            }
+            if (FORMAT == ExportFormat.JSON) {
+                out.write("]\n");
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package wishc1.wishlist.build;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Build step writing a gzip (.gz) and a brotli (.br) copy next to every text asset in the static
+ * resources, so they are served precompressed instead of being compressed on every request. A copy
+ * that would not be smaller than the original is left out.
+ * <p>
+ * Runs in the process-test-classes phase, so the tests see the copies too, as a single-file source
+ * program: java StaticAssetCompressor.java target/classes/static
+ */
+public class StaticAssetCompressor {
+
+    private static final Set<String> EXTENSIONS = Set.of("css", "js", "html", "svg", "json", "txt");
+    private static final int BROTLI_QUALITY = 11;
+
+    public static void main(String[] args) throws IOException {
+        Path root = Path.of(args.length > 0 ? args[0] : "target/classes/static");
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        Brotli4jLoader.ensureAvailability();
+        List<Path> assets;
+        try (Stream<Path> files = Files.walk(root)) {
+            assets = files.filter(Files::isRegularFile).filter(StaticAssetCompressor::isCompressible).toList();
+        }
+        for (Path asset : assets) {
+            byte[] original = Files.readAllBytes(asset);
+            long gzip = write(asset, ".gz", original, gzip(original));
+            long brotli = write(asset, ".br", original, Encoder.compress(original, new Encoder.Parameters().setQuality(BROTLI_QUALITY)));
+            System.out.printf("%s: %d bytes, gzip %d, brotli %d%n", root.relativize(asset), original.length, gzip, brotli);
+        }
+    }
+
+    private static boolean isCompressible(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && EXTENSIONS.contains(name.substring(dot + 1));
+    }
+
+    // Returns the size written, or -1 if the copy was left out
+    private static long write(Path asset, String suffix, byte[] original, byte[] compressed) throws IOException {
+        Path target = asset.resolveSibling(asset.getFileName() + suffix);
+        if (compressed.length >= original.length) {
+            Files.deleteIfExists(target);
+            return -1;
+        }
+        Files.write(target, compressed);
+        return compressed.length;
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+}
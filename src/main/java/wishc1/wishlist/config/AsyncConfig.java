@@ -0,0 +1,13 @@
+package wishc1.wishlist.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Runs @Async methods on the auto-configured application task executor, which uses virtual
+ * threads when spring.threads.virtual.enabled is true.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,46 @@
+package wishc1.wishlist.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+import org.springframework.web.servlet.resource.VersionStrategy;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+/**
+ * Sets the Cache-Control of a static asset before it is served: the given one for a request of the
+ * current content-hashed name of an asset, no-cache for anything else, such as the plain name or
+ * the hashed name of an earlier version.
+ */
+class HashedResourceCacheInterceptor implements HandlerInterceptor {
+
+    private final VersionStrategy versionStrategy;
+    private final ObjectProvider<ResourceUrlProvider> urlProvider;
+    private final String hashedCacheControl;
+    private final String plainCacheControl = CacheControl.noCache().getHeaderValue();
+
+    HashedResourceCacheInterceptor(VersionStrategy versionStrategy, ObjectProvider<ResourceUrlProvider> urlProvider,
+                                   CacheControl hashedCacheControl) {
+        this.versionStrategy = versionStrategy;
+        this.urlProvider = urlProvider;
+        this.hashedCacheControl = hashedCacheControl.getHeaderValue();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String path = ServletRequestPathUtils.getCachedPathValue(request);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, isCurrentHashedName(path) ? hashedCacheControl : plainCacheControl);
+        return true;
+    }
+
+    // The version strategy also finds a "version" in plain names with a dash, so the name is compared
+    // with the one the templates would link for the asset
+    private boolean isCurrentHashedName(String path) {
+        String version = versionStrategy.extractVersion(path);
+        return version != null
+                && path.equals(urlProvider.getObject().getForLookupPath(versionStrategy.removeVersion(path, version)));
+    }
+}
@@ -1,16 +1,24 @@
 package wishc1.wishlist.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import wishc1.wishlist.security.PooledPasswordEncoder;
 
 @Configuration
 public class PasswordConfig {
 
+    /**
+     * BCrypt with a per-deployment work factor, hashed on a dedicated bounded pool.
+     * Hashes made with a lower work factor keep working and are upgraded on the next successful login.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PooledPasswordEncoder passwordEncoder(@Value("${wishlist.password.bcrypt-strength:10}") int strength,
+                                                 @Value("${wishlist.password.hashing-threads:0}") int threads,
+                                                 @Value("${wishlist.password.hashing-queue-capacity:100}") int queueCapacity) {
+        // By default leave half of the cores to requests that do not hash
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new PooledPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity);
     }
 }
-
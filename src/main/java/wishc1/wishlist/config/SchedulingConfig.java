@@ -0,0 +1,12 @@
+package wishc1.wishlist.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs @Scheduled methods on the auto-configured task scheduler.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,13 +1,20 @@
 package wishc1.wishlist.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.ExceptionMappingAuthenticationFailureHandler;
+import wishc1.wishlist.exception.PasswordHashingBusyException;
 import wishc1.wishlist.security.CustomUserDetailsService;
 
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -25,12 +32,13 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())  // Disable CSRF for development, enable for production
                 .authorizeHttpRequests(authorize -> authorize
-                        .requestMatchers("/css/**","/register", "/login").permitAll()
+                        .requestMatchers("/register", "/register/availability/**", "/login").permitAll()
                         .anyRequest().authenticated()
                 )
                 .formLogin(form -> form
                         .loginPage("/login")
                         .defaultSuccessUrl("/profile")
+                        .failureHandler(loginFailureHandler())
                         .permitAll()
                 )
                 .logout(logout -> logout
@@ -41,5 +49,29 @@ public class SecurityConfig {
 
         return http.build();
     }
+
+    // Static assets are public and the same for everyone, they get an empty filter chain instead of
+    // a permitAll rule that would still load the security context from the session on every request
+    @Bean
+    public WebSecurityCustomizer staticResourcesSecurityCustomizer() {
+        return web -> web.ignoring().requestMatchers(StaticResourceConfig.PATTERNS);
+    }
+
+    // Actuator endpoints are served on the management port only, which is kept off the public network so
+    // Prometheus can scrape it without a login. Nothing is let through when it shares the application's port.
+    @Bean
+    public WebSecurityCustomizer managementPortSecurityCustomizer(@Value("${server.port:8080}") int serverPort,
+                                                                  @Value("${management.server.port:-1}") int managementPort) {
+        boolean separatePort = managementPort > 0 && managementPort != serverPort;
+        return web -> web.ignoring().requestMatchers(request -> separatePort && request.getLocalPort() == managementPort);
+    }
+
+    // Tell a user whose login was turned away by the hashing pool to retry, instead of "invalid password"
+    private AuthenticationFailureHandler loginFailureHandler() {
+        ExceptionMappingAuthenticationFailureHandler failureHandler = new ExceptionMappingAuthenticationFailureHandler();
+        failureHandler.setDefaultFailureUrl("/login?error");
+        failureHandler.setExceptionMappings(Map.of(PasswordHashingBusyException.class.getName(), "/login?busy"));
+        return failureHandler;
+    }
 }
 
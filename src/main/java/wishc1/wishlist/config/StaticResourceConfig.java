@@ -0,0 +1,72 @@
+package wishc1.wishlist.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.ContentVersionStrategy;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.time.Duration;
+
+/**
+ * Serves src/main/resources/static under content-hashed names: @{/css/style.css} in a template is
+ * written out as /css/style-&lt;md5&gt;.css, so a changed file gets a new URL and every version can be
+ * cached by browsers for good. A file requested under its plain name, e.g. by a hand-written link,
+ * is sent with no-cache instead, so browsers revalidate it. The .gz and .br copies written at build
+ * time (see src/build/java) are sent to clients accepting them. Replaces Spring Boot's own static
+ * resource mapping, switched off with spring.web.resources.add-mappings=false.
+ */
+@Configuration
+public class StaticResourceConfig implements WebMvcConfigurer {
+
+    // URL patterns of the static assets, each served from the directory of the same name in static/
+    static final String[] PATTERNS = {"/css/**", "/js/**"};
+
+    private static final Duration MAX_AGE = Duration.ofDays(365);
+
+    private final ContentVersionStrategy versionStrategy = new ContentVersionStrategy();
+    // Built by Spring MVC from the handlers registered here, so only looked up once requests come in
+    private final ObjectProvider<ResourceUrlProvider> resourceUrlProvider;
+
+    @Autowired
+    public StaticResourceConfig(ObjectProvider<ResourceUrlProvider> resourceUrlProvider) {
+        this.resourceUrlProvider = resourceUrlProvider;
+    }
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        for (String pattern : PATTERNS) {
+            registry.addResourceHandler(pattern)
+                    .addResourceLocations("classpath:/static" + pattern.substring(0, pattern.length() - 2))
+                    // Cache-Control is set by the interceptor below
+                    .setUseLastModified(false)
+                    .resourceChain(true)
+                    // Looks for a precompressed copy of whatever the version resolver below finds
+                    .addResolver(new EncodedResourceResolver())
+                    .addResolver(new VersionResourceResolver().addVersionStrategy(versionStrategy, "/**"));
+        }
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Templates only link the current hashed names, whose content never changes
+        registry.addInterceptor(new HashedResourceCacheInterceptor(versionStrategy, resourceUrlProvider,
+                        CacheControl.maxAge(MAX_AGE).cachePublic().immutable()))
+                .addPathPatterns(PATTERNS);
+    }
+
+    // Rewrites the static resource URLs built by @{...} in the templates to their hashed names
+    @Bean
+    public FilterRegistrationBean<ResourceUrlEncodingFilter> resourceUrlEncodingFilter() {
+        return new FilterRegistrationBean<>(new ResourceUrlEncodingFilter());
+    }
+}
@@ -0,0 +1,53 @@
+package wishc1.wishlist.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import wishc1.wishlist.security.CustomUserDetails;
+import wishc1.wishlist.service.AccountExportService;
+import wishc1.wishlist.service.ExportFormat;
+
+@RestController
+@RequestMapping("/account")
+public class AccountExportController {
+
+    private final AccountExportService accountExportService;
+
+    @Autowired
+    public AccountExportController(AccountExportService accountExportService) {
+        this.accountExportService = accountExportService;
+    }
+
+    /**
+     * Download the current user's wishlists, wishes and share grants. The export is written to the
+     * response while it is read from the database, on an async request thread, so it is never held
+     * in memory as a whole.
+     *
+     * @param format the file format, JSON or CSV
+     * @param authentication the authentication object containing the current user's details
+     * @return the export as an attachment
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAccount(@RequestParam(defaultValue = "JSON") ExportFormat format,
+                                                               Authentication authentication) {
+        // Resolved here, the security context is not available on the thread that writes the body
+        Long userId = ((CustomUserDetails) authentication.getPrincipal()).getId();
+        StreamingResponseBody body = out -> accountExportService.export(userId, format, out);
+
+        ContentDisposition attachment = ContentDisposition.attachment()
+                .filename("wishlist-export." + format.getFileExtension())
+                .build();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment.toString())
+                .contentType(MediaType.parseMediaType(format.getMediaType() + ";charset=UTF-8"))
+                .body(body);
+    }
+}
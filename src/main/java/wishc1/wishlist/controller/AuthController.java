@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import wishc1.wishlist.exception.PasswordHashingBusyException;
 import wishc1.wishlist.exception.UserAlreadyExistsException;
 import wishc1.wishlist.model.AppUser;
 import wishc1.wishlist.repository.AppUserRepository;
@@ -60,12 +61,12 @@ public class AuthController {
             redirectAttributes.addFlashAttribute("success", successMessage);
             return "redirect:/login";
         } catch (UserAlreadyExistsException e) {
-            if (e.getMessage().contains("Email")) {
-                result.rejectValue("email", "error.appUser", e.getMessage());  // Add error to email field
-            } else if (e.getMessage().contains("Username")) {
-                result.rejectValue("username", "error.appUser", e.getMessage());  // Add error to username field
-            }
+            result.rejectValue(e.getField(), "error.appUser", e.getMessage());  // Add error to the taken field
             return "register";  // Reload the registration page with error message
+        } catch (PasswordHashingBusyException e) {
+            String message = messageSource.getMessage("error.password.hashing.busy", null, LocaleContextHolder.getLocale());
+            result.rejectValue("password", "error.appUser", message);
+            return "register";  // Let the user submit again once the login spike is over
         }
     }
 
@@ -0,0 +1,43 @@
+package wishc1.wishlist.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import wishc1.wishlist.dto.AvailabilityResult;
+import wishc1.wishlist.service.AppUserService;
+
+@RestController
+@RequestMapping("/register/availability")
+public class RegistrationAvailabilityController {
+
+    private final AppUserService appUserService;
+
+    @Autowired
+    public RegistrationAvailabilityController(AppUserService appUserService) {
+        this.appUserService = appUserService;
+    }
+
+    /**
+     * Live check of a username typed into the registration form.
+     *
+     * @param value the username typed so far
+     * @return whether the username is still free
+     */
+    @GetMapping("/username")
+    public AvailabilityResult checkUsername(@RequestParam("value") String value) {
+        return new AvailabilityResult(appUserService.isUsernameAvailable(value));
+    }
+
+    /**
+     * Live check of an email typed into the registration form.
+     *
+     * @param value the email typed so far
+     * @return whether the email is still free
+     */
+    @GetMapping("/email")
+    public AvailabilityResult checkEmail(@RequestParam("value") String value) {
+        return new AvailabilityResult(appUserService.isEmailAvailable(value));
+    }
+}
@@ -0,0 +1,47 @@
+package wishc1.wishlist.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import wishc1.wishlist.dto.UserSearchResult;
+import wishc1.wishlist.security.CustomUserDetails;
+import wishc1.wishlist.service.AppUserService;
+
+@RestController
+@RequestMapping("/users")
+public class UserDirectoryController {
+
+    private static final int MAX_PAGE_SIZE = 50;
+
+    private final AppUserService appUserService;
+
+    @Autowired
+    public UserDirectoryController(AppUserService appUserService) {
+        this.appUserService = appUserService;
+    }
+
+    /**
+     * Typeahead search for share recipients by username or email prefix.
+     *
+     * @param q the text typed so far
+     * @param page the zero-based page number
+     * @param size the number of usernames per page
+     * @param authentication the authentication object, used to leave out the current user
+     * @return one page of matching usernames
+     */
+    @GetMapping("/search")
+    public UserSearchResult searchUsers(@RequestParam("q") String q,
+                                        @RequestParam(defaultValue = "0") int page,
+                                        @RequestParam(defaultValue = "10") int size,
+                                        Authentication authentication) {
+        String currentUsername = null;
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails userDetails) {
+            currentUsername = userDetails.getAppUsername();
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        return appUserService.searchUsers(q, currentUsername, Math.max(page, 0), pageSize);
+    }
+}
@@ -5,7 +5,14 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import wishc1.wishlist.dto.BulkOperationResult;
+import wishc1.wishlist.dto.KeysetPage;
+import wishc1.wishlist.dto.ReadyWish;
+import wishc1.wishlist.dto.WishOption;
+import wishc1.wishlist.dto.WishSearchResult;
+import wishc1.wishlist.dto.WishUpdate;
 import wishc1.wishlist.model.Wish;
+import wishc1.wishlist.repository.WishSort;
 import wishc1.wishlist.service.WishService;
 
 import java.util.ArrayList;
@@ -16,6 +23,10 @@ import java.util.Optional;
 @SessionAttributes("readyWishes") // Store "ready" wishes in session for temporary storage
 public class WishController {
 
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int CATALOG_PAGE_SIZE = 50;
+    private static final int PICKER_PAGE_SIZE = 50;
+
     private final WishService wishService;
 
     @Autowired
@@ -25,7 +36,7 @@ public class WishController {
 
     // Initialize the "ready" wishes list in session if not already present
     @ModelAttribute("readyWishes")
-    public List<Wish> readyWishes() {
+    public List<ReadyWish> readyWishes() {
         return new ArrayList<>();
     }
 
@@ -62,9 +73,9 @@ public class WishController {
      */
     @PostMapping("/wishes/ready")
     public String addWishToReadyList(@ModelAttribute("wish") Wish wish,
-                                     @ModelAttribute("readyWishes") List<Wish> readyWishes,
+                                     @ModelAttribute("readyWishes") List<ReadyWish> readyWishes,
                                      RedirectAttributes redirectAttributes) {
-        readyWishes.add(wish); // Add the wish to the session-based "ready" list
+        readyWishes.add(ReadyWish.of(wish)); // Add the wish to the session-based "ready" list
         redirectAttributes.addFlashAttribute("success", "Wish added to ready list.");
         return "redirect:/wishes/ready";  // Redirect to view "ready" wishes
     }
@@ -73,7 +84,7 @@ public class WishController {
      * Show the list of "ready" wishes with an option to add all of them to the database.
      */
     @GetMapping("/wishes/ready")
-    public String viewReadyWishes(@ModelAttribute("readyWishes") List<Wish> readyWishes, Model model) {
+    public String viewReadyWishes(@ModelAttribute("readyWishes") List<ReadyWish> readyWishes, Model model) {
         model.addAttribute("readyWishes", readyWishes); // Pass the "ready" wishes list to the view
         return "ready-wishes";  // Returns the "ready-wishes.html" Thymeleaf template
     }
@@ -82,27 +93,67 @@ public class WishController {
      * Add all "ready" wishes to the database and clear the session list.
      */
     @PostMapping("/wishes/addAll")
-    public String finalizeReadyWishes(@ModelAttribute("readyWishes") List<Wish> readyWishes, RedirectAttributes redirectAttributes) {
-        wishService.addWishes(readyWishes); // Save all "ready" wishes to the database
+    public String finalizeReadyWishes(@ModelAttribute("readyWishes") List<ReadyWish> readyWishes, RedirectAttributes redirectAttributes) {
+        wishService.addWishes(readyWishes.stream().map(ReadyWish::toWish).toList()); // Save all "ready" wishes to the database
         readyWishes.clear(); // Clear the "ready" list after saving
         redirectAttributes.addFlashAttribute("success", "All ready wishes have been saved.");
         return "redirect:/wishes";  // Redirect to the main list of saved wishes
     }
 
     /**
-     * Show a list of all saved wishes in the database.
+     * Show one page of the saved wishes in the database.
      */
     @GetMapping("/wishes")
-    public String listWishes(Model model) {
-        List<Wish> wishes = wishService.getAllWishes(); // Get all saved wishes from the database
-        model.addAttribute("wishes", wishes); // Pass the list of saved wishes to the view
+    public String listWishes(@RequestParam(defaultValue = "NAME") WishSort sort,
+                             @RequestParam(required = false) String after,
+                             Model model) {
+        addCatalogPage(sort, after, model);
         return "list-wishes";  // Returns the "list-wishes.html" Thymeleaf template
     }
 
+    /**
+     * One page of the catalog for the wish pickers, which load further pages on demand.
+     *
+     * @param sort the order of the catalog
+     * @param after the cursor returned with the previous page, or null for the first page
+     * @return the ids and names of one page of wishes
+     */
+    @GetMapping("/wishes/catalog")
+    @ResponseBody
+    public KeysetPage<WishOption> wishCatalog(@RequestParam(defaultValue = "NAME") WishSort sort,
+                                              @RequestParam(required = false) String after) {
+        KeysetPage<Wish> page = wishService.getWishPage(sort, after, PICKER_PAGE_SIZE);
+        return new KeysetPage<>(page.content().stream().map(WishOption::of).toList(), page.nextCursor());
+    }
+
+    /**
+     * Search saved wishes by name and description, ignoring case and accents.
+     *
+     * @param q the search text
+     * @param page the zero-based page number
+     * @param size the number of wishes per page
+     * @return the list of saved wishes, showing one page of matches
+     */
+    @GetMapping("/wishes/search")
+    public String searchWishes(@RequestParam(name = "q", defaultValue = "") String q,
+                               @RequestParam(defaultValue = "0") int page,
+                               @RequestParam(defaultValue = "20") int size,
+                               Model model) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_SEARCH_PAGE_SIZE);
+        WishSearchResult result = wishService.searchWishes(q, Math.max(page, 0), pageSize);
+        model.addAttribute("wishes", result.wishes());
+        model.addAttribute("q", q);
+        model.addAttribute("page", result.page());
+        model.addAttribute("size", pageSize);
+        model.addAttribute("hasNext", result.hasNext());
+        return "list-wishes";
+    }
+
     @GetMapping("/wishes/edit")
-    public String showEditWishesPage(Model model) {
-        List<Wish> wishes = wishService.getAllWishes(); // Fetch all wishes
-        model.addAttribute("wishes", wishes); // Add to model for display
+    public String showEditWishesPage(@RequestParam(defaultValue = "NAME") WishSort sort,
+                                     @RequestParam(required = false) String after,
+                                     Model model) {
+        addCatalogPage(sort, after, model);
         return "edit-wish"; // Returns the edit-wishes.html template
     }
 
@@ -118,25 +169,41 @@ public class WishController {
 
 
     @PostMapping("/wishes/deleteSelected")
-    public String deleteSelectedWishes(@RequestParam List<Long> selectedWishes) {
-        for (Long wishId : selectedWishes) {
-            wishService.deleteWish(wishId); // Delete each selected wish
-        }
+    public String deleteSelectedWishes(@RequestParam List<Long> selectedWishes, RedirectAttributes redirectAttributes) {
+        BulkOperationResult result = wishService.deleteWishes(selectedWishes); // Delete the whole selection at once
+        addBulkResultMessages(result, "deleted", redirectAttributes);
         return "redirect:/wishes/edit"; // Redirect back to the edit page
     }
 
     @PostMapping("/wishes/updateAll")
     public String updateSelectedWishes(@RequestParam List<Long> selectedWishes,
+                                       @RequestParam List<Long> wishIds,
                                        @RequestParam List<String> names,
-                                       @RequestParam List<String> descriptions) {
-        for (int i = 0; i < selectedWishes.size(); i++) {
-            Long wishId = selectedWishes.get(i);
-            Wish updatedWish = wishService.getWishById(wishId)
-                    .orElseThrow(() -> new RuntimeException("Wish not found with id " + wishId));
-            updatedWish.setName(names.get(i));
-            updatedWish.setDescription(descriptions.get(i));
-            wishService.saveWish(updatedWish); // Persist updates
+                                       @RequestParam List<String> descriptions,
+                                       RedirectAttributes redirectAttributes) {
+        // Every row posts its id, name and description; only the selected rows are updated
+        List<WishUpdate> updates = new ArrayList<>();
+        for (int i = 0; i < wishIds.size(); i++) {
+            if (selectedWishes.contains(wishIds.get(i))) {
+                updates.add(new WishUpdate(wishIds.get(i), names.get(i), descriptions.get(i)));
+            }
         }
+        BulkOperationResult result = wishService.updateWishes(updates); // Persist updates in one batch
+        addBulkResultMessages(result, "updated", redirectAttributes);
         return "redirect:/wishes/edit"; // Redirect back to the edit page
     }
+
+    private void addCatalogPage(WishSort sort, String after, Model model) {
+        KeysetPage<Wish> page = wishService.getWishPage(sort, after, CATALOG_PAGE_SIZE);
+        model.addAttribute("wishes", page.content());
+        model.addAttribute("nextCursor", page.nextCursor());
+        model.addAttribute("sort", sort);
+    }
+
+    private void addBulkResultMessages(BulkOperationResult result, String action, RedirectAttributes redirectAttributes) {
+        redirectAttributes.addFlashAttribute("success", result.affected() + " wish(es) " + action + ".");
+        if (result.hasMissing()) {
+            redirectAttributes.addFlashAttribute("error", "Wishes not found: " + result.missingIds());
+        }
+    }
 }
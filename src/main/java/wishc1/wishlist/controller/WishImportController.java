@@ -0,0 +1,102 @@
+package wishc1.wishlist.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import wishc1.wishlist.dto.WishImportProgress;
+import wishc1.wishlist.security.CustomUserDetails;
+import wishc1.wishlist.service.ExportFormat;
+import wishc1.wishlist.service.WishImportService;
+import wishc1.wishlist.service.WishListService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+@Controller
+@RequestMapping("/wishes/import")
+public class WishImportController {
+
+    private final WishImportService wishImportService;
+    private final WishListService wishListService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public WishImportController(WishImportService wishImportService, WishListService wishListService,
+                                ObjectMapper objectMapper) {
+        this.wishImportService = wishImportService;
+        this.wishListService = wishListService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Display the form to upload a CSV or JSON file of wishes.
+     *
+     * @param wishListId the ID of the wishlist to add the wishes to, or null
+     * @param model the model to hold the wishlist ID
+     * @return the import-wishes page
+     */
+    @GetMapping
+    public String showImportForm(@RequestParam(required = false) Long wishListId, Model model) {
+        model.addAttribute("wishListId", wishListId);
+        return "import-wishes";
+    }
+
+    /**
+     * Import the wishes of an uploaded file. The response is newline-delimited JSON: one
+     * WishImportProgress per saved batch, written as soon as the batch is committed, and a final
+     * one with done set.
+     *
+     * @param file the uploaded file
+     * @param format the format of the file, taken from the file name when absent
+     * @param wishListId the ID of one of the user's wishlists to add the wishes to, or null
+     * @param authentication the authentication object containing the current user's details
+     * @return the progress stream, or 403 if the wishlist is not the user's
+     */
+    @PostMapping
+    public ResponseEntity<StreamingResponseBody> importWishes(@RequestParam("file") MultipartFile file,
+                                                              @RequestParam(required = false) ExportFormat format,
+                                                              @RequestParam(required = false) Long wishListId,
+                                                              Authentication authentication) {
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        if (wishListId != null && !wishListService.isOwnedByUser(wishListId, userDetails.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        ExportFormat uploadFormat = format != null ? format : formatOf(file.getOriginalFilename());
+
+        StreamingResponseBody body = out -> {
+            Consumer<WishImportProgress> report = progress -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(progress));
+                    out.write('\n');
+                    out.flush();
+                } catch (IOException e) {
+                    // The client went away, stop importing
+                    throw new UncheckedIOException(e);
+                }
+            };
+            try (InputStream in = file.getInputStream()) {
+                wishImportService.importWishes(in, uploadFormat, wishListId, report);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private static ExportFormat formatOf(String filename) {
+        return filename != null && filename.toLowerCase().endsWith(".json") ? ExportFormat.JSON : ExportFormat.CSV;
+    }
+}
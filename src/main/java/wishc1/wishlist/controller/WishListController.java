@@ -2,15 +2,25 @@ package wishc1.wishlist.controller;
 
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.thymeleaf.context.LazyContextVariable;
+import wishc1.wishlist.dto.KeysetPage;
+import wishc1.wishlist.dto.ReadyWish;
+import wishc1.wishlist.dto.WishListSummary;
 import wishc1.wishlist.model.AppUser;
+import wishc1.wishlist.model.SharedWishListEntry;
 import wishc1.wishlist.model.Wish;
 import wishc1.wishlist.model.WishList;
+import wishc1.wishlist.repository.WishListFetchPlan;
+import wishc1.wishlist.repository.WishSort;
 import wishc1.wishlist.security.CustomUserDetails;
 import wishc1.wishlist.service.AppUserService;
 import wishc1.wishlist.service.WishListService;
@@ -20,12 +30,17 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 
 @Controller
 @RequestMapping("/wishlists")
 public class WishListController {
 
+    private static final int PROFILE_PAGE_SIZE = 20;
+    private static final int PICKER_PAGE_SIZE = 50;
+
     private final WishListService wishListService;
     private final AppUserService appUserService;
     private final WishService wishService;
@@ -68,14 +83,14 @@ public class WishListController {
             return "redirect:/login";
         }
 
-        // Retrieve the authenticated user
-        AppUser appUser = ((CustomUserDetails) authentication.getPrincipal()).getAppUser();
-        wishList.setOwner(appUser);
+        // The session only holds the user's id, the owner is set by reference
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        wishList.setOwner(appUserService.getUserReference(userDetails.getId()));
 
         // Retrieve ready wishes from the session and set them on the wishList
-        List<Wish> readyWishes = (List<Wish>) session.getAttribute("readyWishes");
+        List<ReadyWish> readyWishes = (List<ReadyWish>) session.getAttribute("readyWishes");
         if (readyWishes != null) {
-            wishList.setWishes(readyWishes);  // Add wishes to wishList
+            wishList.setWishes(readyWishes.stream().map(ReadyWish::toWish).collect(Collectors.toList()));  // Add wishes to wishList
         }
 
         // Save the wishList with the associated wishes
@@ -91,11 +106,11 @@ public class WishListController {
 
     @GetMapping("/{id}/addWish")
     public String showAddWishForm(@PathVariable Long id, Model model, RedirectAttributes redirectAttributes) {
-        Optional<WishList> wishList = wishListService.getWishListById(id);
+        Optional<WishList> wishList = wishListService.getWishListById(id, WishListFetchPlan.BASIC);
 
         if (wishList.isPresent()) {
             model.addAttribute("wishList", wishList.get());
-            model.addAttribute("availableWishes", wishService.getAllWishes());
+            addWishPickerPage(model);
         } else {
             redirectAttributes.addFlashAttribute("error", "Wishlist not found.");
             return "redirect:/wishlists/profile";
@@ -116,7 +131,7 @@ public class WishListController {
      */
     @PostMapping("/{id}/addWish")
     public String addWishToWishList(@PathVariable Long id, @RequestParam("wishId") Long wishId, RedirectAttributes redirectAttributes) {
-        Optional<WishList> wishList = wishListService.getWishListById(id);
+        Optional<WishList> wishList = wishListService.getWishListById(id, WishListFetchPlan.WITH_WISHES);
         Optional<Wish> wish = wishService.getWishById(wishId);
 
         if (wishList.isPresent() && wish.isPresent()) {
@@ -141,19 +156,30 @@ public class WishListController {
     }
 
     /**
-     * Display the wishlists that have been shared with the user.
+     * Display the wishlists that have been shared with the user. A conditional GET whose ETag
+     * still matches the wishlist's version is answered with 304 before the wishes are loaded.
      *
      * @param model the model to hold the shared wishlists
-     * @return the shared-wishlists page
+     * @param webRequest the request, for the conditional GET headers
+     * @return the shared-wishlists page, or null when the client's copy is current
      */
     @GetMapping("/shared/{id}/view")
-    public String viewSharedWishList(@PathVariable Long id, Model model, Authentication authentication) {
+    public String viewSharedWishList(@PathVariable Long id, Model model, Authentication authentication,
+                                     ServletWebRequest webRequest) {
         AppUser currentUser = getCurrentUser();
-        Optional<WishList> sharedWishList = wishListService.getWishListById(id);
+        if (!wishListService.isSharedWithUser(id, currentUser.getId())) {
+            model.addAttribute("error", "You do not have access to view this wishlist.");
+            return "error";
+        }
+
+        Optional<WishList> current = wishListService.getWishListById(id, WishListFetchPlan.BASIC);
+        if (current.isPresent() && isNotModified(current.get(), "viewer", webRequest)) {
+            return null;
+        }
 
-        if (sharedWishList.isPresent() && sharedWishList.get().getViewers().contains(currentUser)) {
-            model.addAttribute("wishList", sharedWishList.get());
-            model.addAttribute("wishes", sharedWishList.get().getWishes());
+        if (current.isPresent()) {
+            model.addAttribute("wishList", current.get());
+            model.addAttribute("wishes", lazyWishes(id));
             return "view-shared-wishlist";
         } else {
             model.addAttribute("error", "You do not have access to view this wishlist.");
@@ -174,15 +200,14 @@ public class WishListController {
         // Check if user is authenticated
         if (authentication != null && authentication.isAuthenticated()) {
             CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-            AppUser currentUser = userDetails.getAppUser();
 
             // Retrieve the specific wishlist by ID
-            Optional<WishList> wishList = wishListService.getWishListById(id);
+            Optional<WishList> wishList = wishListService.getWishListById(id, WishListFetchPlan.WITH_VIEWERS);
 
             // If the wishlist exists and belongs to the current user
-            if (wishList.isPresent() && wishList.get().getOwner().equals(currentUser)) {
-                model.addAttribute("wishList", wishList.get());
-                model.addAttribute("users", appUserService.getAllUsers());  // Fetch all users for sharing
+            if (wishList.isPresent() && isOwner(wishList.get(), userDetails)) {
+                model.addAttribute("wishList", wishList.get());  // Recipients are looked up through /users/search
+                model.addAttribute("viewers", wishList.get().getViewers());
                 return "share-wishlist";  // Assuming `share-wishlist.html` is your template for sharing
             } else {
                 model.addAttribute("error", "Wishlist not found or access denied.");
@@ -201,16 +226,12 @@ public class WishListController {
             return "redirect:/wishlists/profile";
         }
 
-        List<AppUser> recipients = appUserService.getUsersByUsernames(recipientUsernames);  // Get the list of users by email
-        List<WishList> wishLists = wishListService.getWishListsByIds(wishListIds);
+        List<AppUser> recipients = appUserService.getUsersByUsernames(recipientUsernames);  // Get the list of users by username
 
-        for (WishList wishList : wishLists) {
-            for (AppUser recipient : recipients) {
-                wishListService.shareWishListWithUser(wishList, recipient);  // Share each wishlist with each user
-            }
-        }
+        // Share every selected wishlist with every recipient in one batch
+        int newGrants = wishListService.shareWishListsWithUsers(wishListIds, recipientIds(recipients));
 
-        redirectAttributes.addFlashAttribute("success", "Wishlist(s) shared successfully.");
+        redirectAttributes.addFlashAttribute("success", "Wishlist(s) shared successfully. New shares: " + newGrants + ".");
         return "redirect:/wishlists/profile";
     }
 
@@ -227,25 +248,102 @@ public class WishListController {
     public String shareMultipleWishLists(@RequestParam List<Long> wishListIds,
                                          @RequestParam List<String> recipientEmails,
                                          RedirectAttributes redirectAttributes) {
-        List<WishList> wishLists = wishListService.getWishListsByIds(wishListIds);
         List<AppUser> recipients = appUserService.getUsersByEmails(recipientEmails);
 
-        if (wishLists.isEmpty() || recipients.isEmpty()) {
+        if (wishListIds.isEmpty() || recipients.isEmpty()) {
             redirectAttributes.addFlashAttribute("error", "Please select wishlists and recipients.");
             return "redirect:/wishlists/share";
         }
 
-        // Share each selected wishlist with each selected recipient
-        for (WishList wishList : wishLists) {
-            for (AppUser recipient : recipients) {
-                wishListService.shareWishListWithUser(wishList, recipient);
-            }
-        }
+        // Share every selected wishlist with every recipient in one batch
+        int newGrants = wishListService.shareWishListsWithUsers(wishListIds, recipientIds(recipients));
 
-        redirectAttributes.addFlashAttribute("success", "Selected wishlists shared successfully with recipients.");
+        redirectAttributes.addFlashAttribute("success", "Selected wishlists shared successfully with recipients. New shares: " + newGrants + ".");
         return "redirect:/wishlists";
     }
 
+    /**
+     * Stop sharing a wishlist with one of its viewers.
+     *
+     * @param id the ID of the wishlist
+     * @param username the username of the viewer to remove
+     * @param redirectAttributes the redirect attributes for success/error messages
+     * @param authentication the authentication object to retrieve current user
+     * @return redirect to the share page of the wishlist
+     */
+    @PostMapping("/{id}/unshare")
+    public String unshareWishList(@PathVariable Long id,
+                                  @RequestParam String username,
+                                  RedirectAttributes redirectAttributes,
+                                  Authentication authentication) {
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+
+        Optional<WishList> wishList = wishListService.getWishListById(id, WishListFetchPlan.WITH_VIEWERS);
+        if (wishList.isEmpty() || !isOwner(wishList.get(), userDetails)) {
+            redirectAttributes.addFlashAttribute("error", "Wishlist not found or access denied.");
+            return "redirect:/wishlists/profile";
+        }
+
+        List<AppUser> viewers = appUserService.getUsersByUsernames(List.of(username));
+        if (viewers.isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "User not found: " + username);
+        } else {
+            wishListService.unshareWishListWithUser(wishList.get(), viewers.get(0));
+            redirectAttributes.addFlashAttribute("success", "Wishlist is no longer shared with " + username + ".");
+        }
+        return "redirect:/wishlists/" + id + "/share";
+    }
+
+    private List<Long> recipientIds(List<AppUser> recipients) {
+        return recipients.stream().map(AppUser::getId).toList();
+    }
+
+    // Compares ids so the owner does not have to be loaded
+    private boolean isOwner(WishList wishList, CustomUserDetails userDetails) {
+        return userDetails.getId() != null && userDetails.getId().equals(wishList.getOwner().getId());
+    }
+
+    /**
+     * Answer a conditional GET for a wishlist page from the wishlist's version, and send the
+     * validators along with a full response. The wishlist comes from the BASIC fetch plan, which
+     * the second-level cache usually serves without a query.
+     *
+     * @param wishList the wishlist shown on the page
+     * @param view which rendering of the page the user gets, pages differ between owner and viewers
+     * @param webRequest the request and response
+     * @return true if the client's copy is current and a 304 has been prepared
+     */
+    private boolean isNotModified(WishList wishList, String view, ServletWebRequest webRequest) {
+        // Let browsers keep the page but revalidate it on every visit
+        webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        String etag = wishList.getId() + "-" + wishList.getVersion() + "-" + view;
+        long lastModified = wishList.getLastModified() != null ? wishList.getLastModified().toEpochMilli() : -1;
+        return webRequest.checkNotModified(etag, lastModified);
+    }
+
+    // Loaded only if the cached fragment showing the wishes misses
+    private LazyContextVariable<List<Wish>> lazyWishes(Long wishListId) {
+        return lazy(() -> wishListService.getWishListById(wishListId, WishListFetchPlan.WITH_WISHES)
+                .map(WishList::getWishes)
+                .orElse(List.of()));
+    }
+
+    private static <T> LazyContextVariable<T> lazy(Supplier<T> loader) {
+        return new LazyContextVariable<>() {
+            @Override
+            protected T loadValue() {
+                return loader.get();
+            }
+        };
+    }
+
+    // The picker starts with the first page of the catalog and fetches the rest from /wishes/catalog on demand
+    private void addWishPickerPage(Model model) {
+        KeysetPage<Wish> page = wishService.getWishPage(WishSort.NAME, null, PICKER_PAGE_SIZE);
+        model.addAttribute("availableWishes", page.content());
+        model.addAttribute("nextCursor", page.nextCursor());
+    }
+
     /**
      * Retrieve the currently logged-in user.
      *
@@ -261,10 +359,10 @@ public class WishListController {
     public String showNewWishListForm(HttpSession session, Model model) {
         // Initialize "readyWishes" list in session if not already present
         if (session.getAttribute("readyWishes") == null) {
-            session.setAttribute("readyWishes", new ArrayList<Wish>());
+            session.setAttribute("readyWishes", new ArrayList<ReadyWish>());
         }
         model.addAttribute("wishList", new WishList());
-        model.addAttribute("availableWishes", wishService.getAllWishes());
+        addWishPickerPage(model);
         return "new-wishlist";
     }
 
@@ -275,17 +373,16 @@ public class WishListController {
     @PostMapping("/addReadyWish")
     public String addReadyWish(@RequestParam("wishId") Long wishId, HttpSession session) {
         // Retrieve the "readyWishes" list from session, initialize if null
-        List<Wish> readyWishes = (List<Wish>) session.getAttribute("readyWishes");
+        List<ReadyWish> readyWishes = (List<ReadyWish>) session.getAttribute("readyWishes");
         if (readyWishes == null) {
             readyWishes = new ArrayList<>();
-            session.setAttribute("readyWishes", readyWishes);
         }
 
-        // Fetch the selected wish and add it to "readyWishes"
+        // Fetch the selected wish and add a copy of it to "readyWishes"
         Wish selectedWish = wishService.getWishById(wishId).orElseThrow(() -> new IllegalArgumentException("Invalid wish ID"));
-        readyWishes.add(new Wish(selectedWish.getName(), selectedWish.getDescription(), selectedWish.getAddedDate()));
+        readyWishes.add(ReadyWish.of(selectedWish));
 
-        // Update session attribute
+        // Set the attribute again, the session store only saves attributes that are set
         session.setAttribute("readyWishes", readyWishes);
         return "redirect:/wishlists/new";
     }
@@ -295,36 +392,46 @@ public class WishListController {
 
 
     @GetMapping("/profile")
-    public String userProfile(Model model, Authentication authentication) {
+    public String userProfile(@RequestParam(required = false) String after, Model model, Authentication authentication) {
         if (authentication != null && authentication.isAuthenticated()) {
             CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-            AppUser appUser = userDetails.getAppUser();
 
-            // Fetch user's own wishlists
-            model.addAttribute("appUser", appUser);
-            model.addAttribute("wishLists", wishListService.getWishListsByOwner(appUser.getId()));
+            // One page of the user's own wishlists, loaded only if the cached fragments showing it miss
+            LazyContextVariable<KeysetPage<WishListSummary>> wishListPage =
+                    lazy(() -> wishListService.getWishListsByOwner(userDetails.getId(), after, PROFILE_PAGE_SIZE));
+            model.addAttribute("appUser", appUserService.getUserById(userDetails.getId()));
+            model.addAttribute("wishListsVersion", wishListService.getWishListsVersion(userDetails.getId()) + ":" + after);
+            model.addAttribute("wishLists", lazy(() -> wishListPage.getValue().content()));
+            model.addAttribute("nextCursor", lazy(() -> wishListPage.getValue().nextCursor()));
 
-            // Fetch wishlists shared with the user
-            List<WishList> sharedWishLists = wishListService.getWishListsSharedWithUser(appUser);
+            // Fetch wishlists shared with the user from their inbox
+            List<SharedWishListEntry> sharedWishLists = wishListService.getSharedWishListInbox(userDetails.getId());
             model.addAttribute("sharedWishLists", sharedWishLists);
 
-            model.addAttribute("users", appUserService.getAllUsers());
-
             return "profile";
         }
         return "redirect:/login";
     }
 
+    /**
+     * Display the wishes in a wishlist. A conditional GET whose ETag still matches the wishlist's
+     * version is answered with 304 before the wishes are loaded.
+     */
     @GetMapping("/{id}/wishes")
-    public String showWishesInWishlist(@PathVariable Long id, Model model, Authentication authentication) {
-        Optional<WishList> wishList = wishListService.getWishListById(id);
+    public String showWishesInWishlist(@PathVariable Long id, Model model, Authentication authentication,
+                                       ServletWebRequest webRequest) {
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        Optional<WishList> current = wishListService.getWishListById(id, WishListFetchPlan.BASIC);
+        if (current.isPresent()
+                && isNotModified(current.get(), isOwner(current.get(), userDetails) ? "owner" : "viewer", webRequest)) {
+            return null;
+        }
 
-        if (wishList.isPresent()) {
-            AppUser currentUser = ((CustomUserDetails) authentication.getPrincipal()).getAppUser();
-            boolean isOwner = wishList.get().getOwner().equals(currentUser);
+        if (current.isPresent()) {
+            boolean isOwner = isOwner(current.get(), userDetails);
 
-            model.addAttribute("wishList", wishList.get());
-            model.addAttribute("wishes", wishList.get().getWishes()); // Ensure wishes are added here
+            model.addAttribute("wishList", current.get());
+            model.addAttribute("wishes", lazyWishes(id));
             model.addAttribute("isOwner", isOwner);
         } else {
             model.addAttribute("error", "Wishlist not found.");
@@ -335,7 +442,7 @@ public class WishListController {
 
     @PostMapping("/{wishlistId}/wishes/{wishId}/remove")
     public String removeWishFromWishList(@PathVariable Long wishlistId, @PathVariable Long wishId, RedirectAttributes redirectAttributes) {
-        Optional<WishList> wishListOptional = wishListService.getWishListById(wishlistId);
+        Optional<WishList> wishListOptional = wishListService.getWishListById(wishlistId, WishListFetchPlan.WITH_WISHES);
         Optional<Wish> wishOptional = wishService.getWishById(wishId);
 
         if (wishListOptional.isPresent() && wishOptional.isPresent()) {
@@ -350,7 +457,7 @@ public class WishListController {
 
     @PostMapping("/{id}/delete")
     public String deleteWishlist(@PathVariable Long id, RedirectAttributes redirectAttributes) {
-        Optional<WishList> wishList = wishListService.getWishListById(id);
+        Optional<WishList> wishList = wishListService.getWishListById(id, WishListFetchPlan.WITH_WISHES);
 
         if (wishList.isPresent()) {
             if (wishList.get().getWishes().isEmpty()) {
@@ -0,0 +1,47 @@
+package wishc1.wishlist.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One row of an account export. A "wish" row holds a wishlist with one of its wishes, or with no
+ * wish when the wishlist is empty; a "viewer" row holds a wishlist with one user it is shared with.
+ * The wishlist columns repeat on every row, so each row can be written as soon as it is read.
+ *
+ * @param record          "wish" or "viewer"
+ * @param wishListId      the ID of the wishlist
+ * @param eventName       the event name of the wishlist
+ * @param eventDate       the event date of the wishlist
+ * @param wishId          the ID of the wish, null on viewer rows and for empty wishlists
+ * @param wishName        the name of the wish
+ * @param wishDescription the description of the wish
+ * @param wishAddedDate   the date the wish was added
+ * @param viewerUsername  the username of the viewer, null on wish rows
+ */
+public record AccountExportRow(String record,
+                               Long wishListId,
+                               String eventName,
+                               LocalDate eventDate,
+                               Long wishId,
+                               String wishName,
+                               String wishDescription,
+                               LocalDateTime wishAddedDate,
+                               String viewerUsername) {
+
+    public static final String WISH = "wish";
+    public static final String VIEWER = "viewer";
+
+    /** Column names, in the order of {@link #values()}. */
+    public static final List<String> COLUMNS = List.of("record", "wishListId", "eventName", "eventDate",
+            "wishId", "wishName", "wishDescription", "wishAddedDate", "viewerUsername");
+
+    /**
+     * @return the column values in the order of {@link #COLUMNS}, nulls included
+     */
+    public List<Object> values() {
+        return Arrays.asList(record, wishListId, eventName, eventDate,
+                wishId, wishName, wishDescription, wishAddedDate, viewerUsername);
+    }
+}
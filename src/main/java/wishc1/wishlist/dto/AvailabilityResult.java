@@ -0,0 +1,7 @@
+package wishc1.wishlist.dto;
+
+/**
+ * Whether a username or email can still be registered.
+ */
+public record AvailabilityResult(boolean available) {
+}
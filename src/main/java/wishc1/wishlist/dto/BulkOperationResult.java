@@ -0,0 +1,16 @@
+package wishc1.wishlist.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk operation over a selection of ids.
+ *
+ * @param affected   the number of rows that were changed
+ * @param missingIds the requested ids that did not exist
+ */
+public record BulkOperationResult(int affected, List<Long> missingIds) {
+
+    public boolean hasMissing() {
+        return !missingIds.isEmpty();
+    }
+}
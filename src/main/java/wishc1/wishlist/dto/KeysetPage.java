@@ -0,0 +1,16 @@
+package wishc1.wishlist.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset (seek) paginated listing.
+ *
+ * @param content    the rows of this page, in listing order
+ * @param nextCursor opaque cursor pointing after the last row, or null if this is the last page
+ */
+public record KeysetPage<T>(List<T> content, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
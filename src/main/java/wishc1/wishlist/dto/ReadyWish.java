@@ -0,0 +1,21 @@
+package wishc1.wishlist.dto;
+
+import wishc1.wishlist.model.Wish;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * A wish drafted in the session before it is saved. Kept as a small value instead of a Wish
+ * entity so the session serializes compactly and never holds managed state.
+ */
+public record ReadyWish(String name, String description, LocalDateTime addedDate) implements Serializable {
+
+    public static ReadyWish of(Wish wish) {
+        return new ReadyWish(wish.getName(), wish.getDescription(), wish.getAddedDate());
+    }
+
+    public Wish toWish() {
+        return new Wish(name, description, addedDate);
+    }
+}
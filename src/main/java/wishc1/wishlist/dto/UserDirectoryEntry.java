@@ -0,0 +1,10 @@
+package wishc1.wishlist.dto;
+
+/**
+ * Read-only projection of the AppUser columns kept in the user directory index.
+ */
+public interface UserDirectoryEntry {
+    Long getId();
+    String getUsername();
+    String getEmail();
+}
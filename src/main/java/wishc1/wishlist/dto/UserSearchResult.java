@@ -0,0 +1,9 @@
+package wishc1.wishlist.dto;
+
+import java.util.List;
+
+/**
+ * One page of usernames matching a user directory search.
+ */
+public record UserSearchResult(List<String> usernames, int page, boolean hasNext) {
+}
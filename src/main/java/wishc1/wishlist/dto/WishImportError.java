@@ -0,0 +1,10 @@
+package wishc1.wishlist.dto;
+
+/**
+ * A row of a wish import that was not saved.
+ *
+ * @param row     the number of the row in the upload, starting at 1 for the first data row
+ * @param message why the row was not saved
+ */
+public record WishImportError(long row, String message) {
+}
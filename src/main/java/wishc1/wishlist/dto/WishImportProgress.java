@@ -0,0 +1,23 @@
+package wishc1.wishlist.dto;
+
+import java.util.List;
+
+/**
+ * Progress of a running wish import, reported after every batch and once more when it is done.
+ *
+ * @param rowsRead      the number of rows read from the upload so far
+ * @param imported      the number of wishes saved so far
+ * @param rejected      the number of rows that were not saved so far
+ * @param elapsedMillis the time since the import started
+ * @param rowsPerSecond the rows read per second since the import started
+ * @param done          true on the last report
+ * @param errors        the rows rejected since the previous report
+ */
+public record WishImportProgress(long rowsRead,
+                                 long imported,
+                                 long rejected,
+                                 long elapsedMillis,
+                                 double rowsPerSecond,
+                                 boolean done,
+                                 List<WishImportError> errors) {
+}
@@ -0,0 +1,14 @@
+package wishc1.wishlist.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of a WishList with the columns shown in listings.
+ */
+public interface WishListSummary {
+    Long getId();
+    String getEventName();
+    LocalDate getEventDate();
+    int getWishCount();
+    int getViewerCount();
+}
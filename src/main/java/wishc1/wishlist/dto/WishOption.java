@@ -0,0 +1,13 @@
+package wishc1.wishlist.dto;
+
+import wishc1.wishlist.model.Wish;
+
+/**
+ * A wish as offered in the wish pickers, which only need its id and name.
+ */
+public record WishOption(Long id, String name) {
+
+    public static WishOption of(Wish wish) {
+        return new WishOption(wish.getId(), wish.getName());
+    }
+}
@@ -0,0 +1,10 @@
+package wishc1.wishlist.dto;
+
+/**
+ * Read-only projection of the Wish columns kept in the wish search index.
+ */
+public interface WishSearchEntry {
+    Long getId();
+    String getName();
+    String getDescription();
+}
@@ -0,0 +1,11 @@
+package wishc1.wishlist.dto;
+
+import wishc1.wishlist.model.Wish;
+
+import java.util.List;
+
+/**
+ * One page of wishes matching a full-text search, best match first.
+ */
+public record WishSearchResult(List<Wish> wishes, int page, boolean hasNext) {
+}
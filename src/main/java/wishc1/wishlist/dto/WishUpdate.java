@@ -0,0 +1,7 @@
+package wishc1.wishlist.dto;
+
+/**
+ * New name and description for an existing wish, used by bulk updates.
+ */
+public record WishUpdate(Long id, String name, String description) {
+}
@@ -0,0 +1,13 @@
+package wishc1.wishlist.exception;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Thrown when the password hashing pool and its queue are full. It is an authentication exception
+ * so a rejected login is sent to the login failure handler instead of failing the request.
+ */
+public class PasswordHashingBusyException extends AuthenticationServiceException {
+    public PasswordHashingBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,8 +1,19 @@
 package wishc1.wishlist.exception;
 
 public class UserAlreadyExistsException extends RuntimeException {
-    public UserAlreadyExistsException(String message) {
+
+    private final String field;
+
+    /**
+     * @param field   the AppUser field that is already taken, "email" or "username"
+     * @param message the localized message to show next to the field
+     */
+    public UserAlreadyExistsException(String field, String message) {
         super(message);
+        this.field = field;
     }
-}
 
+    public String getField() {
+        return field;
+    }
+}
@@ -2,12 +2,24 @@ package wishc1.wishlist.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "appUser")
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = AppUser.EMAIL_CONSTRAINT, columnNames = "email"),
+        @UniqueConstraint(name = AppUser.USERNAME_CONSTRAINT, columnNames = "username")
+})
 public class AppUser {
 
+    // Named so a violation can be traced back to the field, see AppUserService.saveUser
+    public static final String EMAIL_CONSTRAINT = "uk_app_user_email";
+    public static final String USERNAME_CONSTRAINT = "uk_app_user_username";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -18,7 +30,6 @@ public class AppUser {
             regexp = "^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,6}$",
             message = "{appUser.email.pattern}"
     ) // Enforces a stricter email pattern
-    @Column(unique = true)
     private String email;
 
     @NotBlank(message = "{appUser.password.notBlank}")
@@ -27,7 +38,6 @@ public class AppUser {
 
     @NotBlank(message = "{appUser.username.notBlank}")
     @Size(min = 3, message = "{appUser.username.size}")
-    @Column(unique = true)
     private String username;
 
     @OneToMany(mappedBy = "owner", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -73,7 +83,7 @@ public class AppUser {
         this.wishlists = wishlists;
     }
 
-    public long getId() {
+    public Long getId() {
         return id;
     }
 
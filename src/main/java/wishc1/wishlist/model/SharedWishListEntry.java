@@ -0,0 +1,57 @@
+package wishc1.wishlist.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Denormalized "shared with me" inbox row. It copies what the profile page shows about a
+ * wishlist shared with a viewer, so that section is one range scan over the viewer's rows.
+ * The rows are kept in sync by WishListService whenever a wishlist is shared, unshared or deleted.
+ */
+@Entity
+@IdClass(SharedWishListEntryId.class)
+@Table(name = "shared_wishlist_inbox",
+        indexes = @Index(name = "idx_inbox_viewer_event_date", columnList = "viewer_id, event_date, wishlist_id"))
+public class SharedWishListEntry {
+
+    @Id
+    @Column(name = "viewer_id")
+    private Long viewerId;
+
+    @Id
+    @Column(name = "wishlist_id")
+    private Long wishListId;
+
+    @Column(name = "owner_username")
+    private String ownerUsername;
+
+    @Column(name = "event_name")
+    private String eventName;
+
+    @Column(name = "event_date")
+    private LocalDate eventDate;
+
+    public SharedWishListEntry() {}
+
+    // Getters only, rows are written with set-based statements in SharedWishListInboxRepository
+
+    public Long getViewerId() {
+        return viewerId;
+    }
+
+    public Long getWishListId() {
+        return wishListId;
+    }
+
+    public String getOwnerUsername() {
+        return ownerUsername;
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+
+    public LocalDate getEventDate() {
+        return eventDate;
+    }
+}
@@ -0,0 +1,33 @@
+package wishc1.wishlist.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Primary key of a SharedWishListEntry: one row per (viewer, wishlist) grant.
+ */
+public class SharedWishListEntryId implements Serializable {
+
+    private Long viewerId;
+    private Long wishListId;
+
+    public SharedWishListEntryId() {}
+
+    public SharedWishListEntryId(Long viewerId, Long wishListId) {
+        this.viewerId = viewerId;
+        this.wishListId = wishListId;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof SharedWishListEntryId other) {
+            return Objects.equals(viewerId, other.viewerId) && Objects.equals(wishListId, other.wishListId);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(viewerId, wishListId);
+    }
+}
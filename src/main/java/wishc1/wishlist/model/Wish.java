@@ -1,21 +1,36 @@
 package wishc1.wishlist.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "wishes")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "wish")
+@Table(name = "wishes", indexes = {
+        @Index(name = "idx_wishes_name_id", columnList = "name, id"),
+        @Index(name = "idx_wishes_added_date_id", columnList = "added_date, id")
+})
 public class Wish {
 
+    // Ids are handed out in blocks so Hibernate can batch inserts (IDENTITY disables JDBC batching)
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Column lengths, checked by the wish import before rows reach the database
+    public static final int NAME_LENGTH = 255;
+    public static final int DESCRIPTION_LENGTH = 500;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wishes_seq")
+    @SequenceGenerator(name = "wishes_seq", sequenceName = "wishes_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
-    @Column(nullable = false)
+    @Column(nullable = false, length = NAME_LENGTH)
     private String name;
 
-    @Column(length = 500)
+    @Column(length = DESCRIPTION_LENGTH)
     private String description;
 
     @Column(name = "added_date")
@@ -1,14 +1,31 @@
 package wishc1.wishlist.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "wishList")
+@NamedEntityGraph(name = WishList.GRAPH_WITH_WISHES,
+        attributeNodes = {@NamedAttributeNode("owner"), @NamedAttributeNode("wishes")})
+@NamedEntityGraph(name = WishList.GRAPH_WITH_VIEWERS,
+        attributeNodes = {@NamedAttributeNode("owner"), @NamedAttributeNode("viewers")})
+@Table(indexes = @Index(name = "idx_wishlist_owner_event_date", columnList = "owner_id, eventDate, id"))
 public class WishList {
 
+    // Named fetch plans, selected per call site through WishListFetchPlan
+    public static final String GRAPH_WITH_WISHES = "WishList.withWishes";
+    public static final String GRAPH_WITH_VIEWERS = "WishList.withViewers";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -21,23 +38,35 @@ public class WishList {
     @JoinColumn(name = "owner_id", nullable = false)
     private AppUser owner;
 
-    @ManyToMany(fetch = FetchType.EAGER) // Eager loading to ensure wishes are loaded immediately
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "wishList-wishes")
+    @ManyToMany // Lazy by default, call sites that need the wishes pick a fetch plan that loads them
     @JoinTable(
             name = "wishlist_wishes",
             joinColumns = @JoinColumn(name = "wishlist_id"),
             inverseJoinColumns = @JoinColumn(name = "wish_id")
 
     )
-    private List<Wish> wishes;
+    private List<Wish> wishes = new ArrayList<>();
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "wishList-viewers")
     @ManyToMany
     @JoinTable(
             name = "wishlist_viewers",
             joinColumns = @JoinColumn(name = "wishlist_id"),
             inverseJoinColumns = @JoinColumn(name = "user_id")
     )
+    private Set<AppUser> viewers = new HashSet<>();
+
+    // Bumped on every change to the wishlist, its wishes or its viewers. Hibernate bumps it when the
+    // entity or one of its collections changes, writes that go around the entity bump it explicitly
+    // (see WishListRepositoryCustom#touchWishLists). Conditional GETs use it as the ETag.
+    @Version
+    @ColumnDefault("0")
+    private long version;
 
-    private Set<AppUser> viewers;
+    // Stamped by the mutators below rather than @UpdateTimestamp, which Hibernate skips when only a
+    // collection changed and it merely increments the version
+    private Instant lastModified;
 
     public WishList() {}
 
@@ -45,7 +74,6 @@ public class WishList {
         this.eventName = eventName;
         this.eventDate = eventDate;
         this.owner = owner;
-        this.viewers = new HashSet<>();  // Initialize viewers to avoid NullPointerException
     }
 
     // Getters and setters
@@ -63,6 +91,7 @@ public class WishList {
 
     public void setEventName(String eventName) {
         this.eventName = eventName;
+        markModified();
     }
 
     public LocalDate getEventDate() {
@@ -71,6 +100,7 @@ public class WishList {
 
     public void setEventDate(LocalDate eventDate) {
         this.eventDate = eventDate;
+        markModified();
     }
 
     public AppUser getOwner() {
@@ -87,10 +117,17 @@ public class WishList {
 
     public void setWishes(List<Wish> wishes) {
         this.wishes = wishes;
+        markModified();
     }
 
     public void addWish(Wish wish) {
         this.wishes.add(wish);
+        markModified();
+    }
+
+    public void removeWish(Wish wish) {
+        this.wishes.remove(wish);
+        markModified();
     }
 
     // Getters and setters for all fields
@@ -101,14 +138,31 @@ public class WishList {
 
     public void setViewers(Set<AppUser> viewers) {
         this.viewers = viewers;
+        markModified();
     }
 
     public void addViewer(AppUser viewer) {
         this.viewers.add(viewer);
+        markModified();
     }
 
+    // By id, the viewer may come from another persistence context than the loaded collection
     public void removeViewer(AppUser viewer) {
-        this.viewers.remove(viewer);
+        this.viewers.removeIf(existing -> Objects.equals(existing.getId(), viewer.getId()));
+        markModified();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    @PrePersist
+    private void markModified() {
+        this.lastModified = Instant.now();
     }
 }
 
@@ -0,0 +1,52 @@
+package wishc1.wishlist.monitoring;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Actuator endpoint with the hit/miss counts of every second-level cache region, used to size the
+ * regions in application.conf. The counts are only collected when hibernate.generate_statistics is on.
+ */
+@Component
+@Endpoint(id = "cacheregions")
+public class CacheRegionsEndpoint {
+
+    private final Statistics statistics;
+
+    @Autowired
+    public CacheRegionsEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ReadOperation
+    public Map<String, RegionStatistics> regions() {
+        Map<String, RegionStatistics> regions = new TreeMap<>();
+        Arrays.stream(statistics.getSecondLevelCacheRegionNames()).forEach(name -> {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region != null) {
+                regions.put(name, RegionStatistics.of(region));
+            }
+        });
+        return regions;
+    }
+
+    public record RegionStatistics(long hits, long misses, long puts, double hitRatio) {
+
+        static RegionStatistics of(CacheRegionStatistics region) {
+            long hits = region.getHitCount();
+            long misses = region.getMissCount();
+            long requests = hits + misses;
+            return new RegionStatistics(hits, misses, region.getPutCount(), requests == 0 ? 0 : (double) hits / requests);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package wishc1.wishlist.monitoring;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the number of live HTTP sessions in the JDBC session store as the wishlist.sessions
+ * gauge, tagged with whether a user is logged in to them. Counted in the database on every scrape,
+ * so the value covers the sessions of all instances.
+ */
+@Component
+public class SessionMetrics implements MeterBinder {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String countLive;
+
+    @Autowired
+    public SessionMetrics(JdbcTemplate jdbcTemplate,
+                          @Value("${spring.session.jdbc.table-name:SPRING_SESSION}") String tableName) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.countLive = "select count(*) from " + tableName + " where EXPIRY_TIME > ? and PRINCIPAL_NAME is ";
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("wishlist.sessions", this, metrics -> metrics.count("not null"))
+                .description("Live HTTP sessions")
+                .tag("state", "authenticated")
+                .register(registry);
+        Gauge.builder("wishlist.sessions", this, metrics -> metrics.count("null"))
+                .description("Live HTTP sessions")
+                .tag("state", "anonymous")
+                .register(registry);
+    }
+
+    private long count(String principalCondition) {
+        Long count = jdbcTemplate.queryForObject(countLive + principalCondition, Long.class, System.currentTimeMillis());
+        return count != null ? count : 0;
+    }
+}
@@ -0,0 +1,95 @@
+package wishc1.wishlist.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements of every HTTP request and publishes them as the wishlist.sql.statements
+ * summary, tagged with the handler method (e.g. "WishListController.userProfile"). A request running
+ * more statements than the budget, or the same statement more often than the repeat budget (the
+ * usual sign of an N+1 query), also increments wishlist.sql.budget.exceeded. Runs outside the other
+ * filters, so the session and security lookups count too; work done on another thread, such as a
+ * streamed response body, does not.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlStatementBudgetFilter extends OncePerRequestFilter {
+
+    /** Request attribute holding the counted SqlStatementCounter.Statements once the request is done. */
+    public static final String STATEMENTS_ATTRIBUTE = SqlStatementBudgetFilter.class.getName() + ".statements";
+
+    private static final String NO_HANDLER = "none";
+
+    private final SqlStatementCounter counter;
+    private final MeterRegistry meterRegistry;
+    private final int statementBudget;
+    private final int repeatedStatementBudget;
+
+    @Autowired
+    public SqlStatementBudgetFilter(SqlStatementCounter counter, MeterRegistry meterRegistry,
+                                    @Value("${wishlist.sql.statement-budget:30}") int statementBudget,
+                                    @Value("${wishlist.sql.repeated-statement-budget:5}") int repeatedStatementBudget) {
+        this.counter = counter;
+        this.meterRegistry = meterRegistry;
+        this.statementBudget = statementBudget;
+        this.repeatedStatementBudget = repeatedStatementBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementCounter.Statements statements = counter.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            counter.end();
+            request.setAttribute(STATEMENTS_ATTRIBUTE, statements);
+            record(handler(request), statements);
+        }
+    }
+
+    private void record(String handler, SqlStatementCounter.Statements statements) {
+        DistributionSummary.builder("wishlist.sql.statements")
+                .description("SQL statements run by one request")
+                .tag("handler", handler)
+                .register(meterRegistry)
+                .record(statements.total());
+        if (statements.total() > statementBudget) {
+            exceeded(handler, "total");
+        }
+        if (statements.mostRepeated() > repeatedStatementBudget) {
+            exceeded(handler, "repeated");
+        }
+    }
+
+    private void exceeded(String handler, String budget) {
+        Counter.builder("wishlist.sql.budget.exceeded")
+                .description("Requests that ran more SQL statements than their budget")
+                .tag("handler", handler)
+                .tag("budget", budget)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String handler(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod method) {
+            return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        }
+        return NO_HANDLER;
+    }
+}
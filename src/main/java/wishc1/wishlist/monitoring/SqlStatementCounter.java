@@ -0,0 +1,102 @@
+package wishc1.wishlist.monitoring;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements sent to the database while a scope is open on the current thread, see
+ * {@link #begin()}. Wraps the application's DataSource with datasource-proxy to see them, so
+ * statements from Hibernate, JdbcTemplate and Spring Session are all counted. A JDBC batch counts
+ * as one statement.
+ */
+@Component
+public class SqlStatementCounter implements BeanPostProcessor, QueryExecutionListener {
+
+    private final ThreadLocal<Statements> current = new ThreadLocal<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return ProxyDataSourceBuilder.create(dataSource)
+                    .name(beanName)
+                    .listener(this)
+                    .build();
+        }
+        return bean;
+    }
+
+    /**
+     * Start counting the statements run on the current thread, until {@link #end()}.
+     *
+     * @return the statements of the new scope, updated as they run
+     */
+    public Statements begin() {
+        Statements statements = new Statements();
+        current.set(statements);
+        return statements;
+    }
+
+    /**
+     * Stop counting on the current thread.
+     */
+    public void end() {
+        current.remove();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Statements statements = current.get();
+        if (statements != null && !queryInfoList.isEmpty()) {
+            statements.add(queryInfoList.get(0).getQuery());
+        }
+    }
+
+    /**
+     * The statements counted in one scope.
+     */
+    public static class Statements {
+
+        private final Map<String, Integer> countBySql = new HashMap<>();
+        private int total;
+
+        private void add(String sql) {
+            total++;
+            countBySql.merge(sql, 1, Integer::sum);
+        }
+
+        /**
+         * @return the number of statements
+         */
+        public int total() {
+            return total;
+        }
+
+        /**
+         * @return how often the most frequent SQL text was run. Above one it is usually a query run
+         *         once per row of an earlier result (N+1)
+         */
+        public int mostRepeated() {
+            return countBySql.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+        }
+
+        /**
+         * @return the number of runs per SQL text
+         */
+        public Map<String, Integer> countBySql() {
+            return Map.copyOf(countBySql);
+        }
+    }
+}
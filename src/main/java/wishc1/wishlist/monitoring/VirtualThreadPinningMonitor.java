@@ -0,0 +1,84 @@
+package wishc1.wishlist.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Watches for virtual threads that block while pinned to their carrier thread, for example inside
+ * a synchronized block around I/O, and publishes them as the jvm.threads.virtual.pinned timer.
+ * Events are also counted per top application stack frame, see {@link #pinnedFrames()}.
+ * Only active when requests run on virtual threads.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements MeterBinder, DisposableBean {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "wishc1.wishlist.";
+
+    private final RecordingStream recording;
+    private final Map<String, Long> pinnedFrames = new ConcurrentHashMap<>();
+    private volatile Timer pinned;
+
+    public VirtualThreadPinningMonitor(@Value("${wishlist.virtual-threads.pinned-threshold:20ms}") Duration threshold) {
+        this.recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::record);
+        recording.startAsync();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Time virtual threads spent blocked while pinned to their carrier thread")
+                .register(registry);
+    }
+
+    /**
+     * @return the number of pinning events per top application stack frame, or per top frame
+     *         when no application code was on the stack
+     */
+    public Map<String, Long> pinnedFrames() {
+        return Map.copyOf(pinnedFrames);
+    }
+
+    @Override
+    public void destroy() {
+        recording.close();
+    }
+
+    private void record(RecordedEvent event) {
+        Timer timer = pinned;
+        if (timer != null) {
+            timer.record(event.getDuration());
+        }
+        pinnedFrames.merge(topFrame(event), 1L, Long::sum);
+    }
+
+    private static String topFrame(RecordedEvent event) {
+        if (event.getStackTrace() == null || event.getStackTrace().getFrames().isEmpty()) {
+            return "unknown";
+        }
+        RecordedFrame top = event.getStackTrace().getFrames().get(0);
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            if (frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE)) {
+                top = frame;
+                break;
+            }
+        }
+        return top.getMethod().getType().getName() + "." + top.getMethod().getName();
+    }
+}
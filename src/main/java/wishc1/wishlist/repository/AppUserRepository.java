@@ -1,14 +1,21 @@
 package wishc1.wishlist.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import wishc1.wishlist.dto.UserDirectoryEntry;
 import wishc1.wishlist.model.AppUser;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AppUserRepository extends JpaRepository<AppUser, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<AppUser> findByEmail(String email);// For authentication by email
     List<AppUser> findAllByEmailIn(List<String> emails);
     List<AppUser> findAllByUsernameIn(List<String> usernames);
@@ -16,6 +23,17 @@ public interface AppUserRepository extends JpaRepository<AppUser, Long> {
     // Methods for custom validators
     boolean existsByEmail(String email);
     boolean existsByUsername(String username);
+
+    // Streams only the columns needed to build the user directory index
+    @Query("select u.id as id, u.username as username, u.email as email from AppUser u")
+    Stream<UserDirectoryEntry> streamDirectoryEntries();
+
+    // The same columns for the users with a higher id than the given one, in id order
+    @Query("select u.id as id, u.username as username, u.email as email from AppUser u where u.id > :id order by u.id")
+    List<UserDirectoryEntry> findDirectoryEntriesAfter(long id);
+
+    @Query("select coalesce(max(u.id), 0) from AppUser u")
+    long findMaxId();
 }
 
 
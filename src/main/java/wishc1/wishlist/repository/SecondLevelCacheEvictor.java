@@ -0,0 +1,45 @@
+package wishc1.wishlist.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Evicts second-level cache entries for rows written with plain JDBC, which Hibernate does not see.
+ * Entries are evicted right away and once more after commit, so a read that races the write
+ * cannot leave the old state cached.
+ */
+class SecondLevelCacheEvictor {
+
+    private final Cache cache;
+
+    SecondLevelCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+
+    void evictEntities(Class<?> entityClass, Collection<?> ids) {
+        List<?> keys = List.copyOf(ids);
+        runNowAndAfterCommit(() -> keys.forEach(id -> cache.evictEntityData(entityClass, id)));
+    }
+
+    void evictCollections(String role, Collection<?> ownerIds) {
+        List<?> keys = List.copyOf(ownerIds);
+        runNowAndAfterCommit(() -> keys.forEach(ownerId -> cache.evictCollectionData(role, ownerId)));
+    }
+
+    private void runNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package wishc1.wishlist.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+import wishc1.wishlist.model.SharedWishListEntry;
+import wishc1.wishlist.model.SharedWishListEntryId;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SharedWishListInboxRepository extends JpaRepository<SharedWishListEntry, SharedWishListEntryId> {
+
+    // Range scan over idx_inbox_viewer_event_date
+    List<SharedWishListEntry> findByViewerIdOrderByEventDateAscWishListIdAsc(Long viewerId);
+
+    // Copy the grants of the given wishlists and viewers that have no inbox row yet
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "shared_wishlist_inbox"))
+    @Query(value = """
+            insert into shared_wishlist_inbox (viewer_id, wishlist_id, owner_username, event_name, event_date)
+            select v.user_id, w.id, o.username, w.event_name, w.event_date
+            from wishlist_viewers v
+            join wish_list w on w.id = v.wishlist_id
+            join app_user o on o.id = w.owner_id
+            where v.wishlist_id in (:wishListIds) and v.user_id in (:viewerIds)
+              and not exists (select 1 from shared_wishlist_inbox i
+                              where i.viewer_id = v.user_id and i.wishlist_id = v.wishlist_id)
+            """, nativeQuery = true)
+    int insertMissingEntries(Collection<Long> wishListIds, Collection<Long> viewerIds);
+
+    // Same as above for every grant, used to backfill the inbox
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "shared_wishlist_inbox"))
+    @Query(value = """
+            insert into shared_wishlist_inbox (viewer_id, wishlist_id, owner_username, event_name, event_date)
+            select v.user_id, w.id, o.username, w.event_name, w.event_date
+            from wishlist_viewers v
+            join wish_list w on w.id = v.wishlist_id
+            join app_user o on o.id = w.owner_id
+            where not exists (select 1 from shared_wishlist_inbox i
+                              where i.viewer_id = v.user_id and i.wishlist_id = v.wishlist_id)
+            """, nativeQuery = true)
+    int insertAllMissingEntries();
+
+    @Modifying
+    @Query("delete from SharedWishListEntry e where e.wishListId = :wishListId and e.viewerId = :viewerId")
+    int deleteEntry(Long wishListId, Long viewerId);
+
+    @Modifying
+    @Query("delete from SharedWishListEntry e where e.wishListId = :wishListId")
+    int deleteByWishListId(Long wishListId);
+}
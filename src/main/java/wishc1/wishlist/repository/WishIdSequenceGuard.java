@@ -0,0 +1,60 @@
+package wishc1.wishlist.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import wishc1.wishlist.model.Wish;
+
+/**
+ * Moves the wish id sequence past the ids already in the wishes table at startup, before the first
+ * insert. A database created while wishes used IDENTITY ids gets a new wishes_seq starting at 1 from
+ * ddl-auto, which would hand out ids that are taken. Databases with sequences (H2) restart the
+ * sequence, MySQL raises next_val of the table Hibernate emulates it with. Any failure stops the
+ * startup rather than letting inserts collide.
+ */
+@Component
+public class WishIdSequenceGuard implements SmartInitializingSingleton {
+
+    static final String SEQUENCE = "wishes_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+
+    @Autowired
+    public WishIdSequenceGuard(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    // After all singletons, so the schema is up to date, and before the web server takes requests
+    @Override
+    public void afterSingletonsInstantiated() {
+        alignWithExistingIds();
+    }
+
+    /**
+     * Raise the sequence so every id of its next block is above the largest wish id.
+     */
+    void alignWithExistingIds() {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from wishes", Long.class);
+        if (maxId == null) {
+            return;
+        }
+        // The pooled optimizer hands out the block of ids ending at the value it reads
+        long lowestSafeValue = maxId + Wish.ID_ALLOCATION_SIZE + 1;
+        if (dialect.getSequenceSupport().supportsSequences()) {
+            Long next = jdbcTemplate.queryForObject(
+                    dialect.getSequenceSupport().getSequenceNextValString(SEQUENCE), Long.class);
+            if (next == null || next < lowestSafeValue) {
+                jdbcTemplate.execute("alter sequence " + SEQUENCE + " restart with " + lowestSafeValue);
+            }
+        } else {
+            jdbcTemplate.update("update " + SEQUENCE + " set next_val = ? where next_val < ?",
+                    lowestSafeValue, lowestSafeValue);
+        }
+    }
+}
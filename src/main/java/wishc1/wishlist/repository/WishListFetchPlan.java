@@ -0,0 +1,14 @@
+package wishc1.wishlist.repository;
+
+/**
+ * Fetch plans for loading a single WishList. Each call site picks the plan
+ * that covers exactly the associations it is going to touch.
+ */
+public enum WishListFetchPlan {
+    /** The wishlist and its owner only. */
+    BASIC,
+    /** The wishlist, its owner and its wishes. */
+    WITH_WISHES,
+    /** The wishlist, its owner and the users it is shared with. */
+    WITH_VIEWERS
+}
@@ -1,16 +1,115 @@
 package wishc1.wishlist.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
-import wishc1.wishlist.model.AppUser;
+import wishc1.wishlist.dto.AccountExportRow;
+import wishc1.wishlist.dto.WishListSummary;
 import wishc1.wishlist.model.WishList;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface WishListRepository extends JpaRepository<WishList, Long> {
+public interface WishListRepository extends JpaRepository<WishList, Long>, WishListRepositoryCustom {
     Optional<WishList> findByEventName(String eventName);
     List<WishList> findAllByOwnerId(Long ownerId);
-    List<WishList> findByViewersContaining(AppUser viewer);
+    boolean existsByIdAndViewersId(Long id, Long viewerId);
+    boolean existsByIdAndOwnerId(Long id, Long ownerId);
+
+    @Query("select w.id from WishList w where w.id in :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    // Grants may be written around the entity (see insertMissingViewers), so remove them by key
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "wishlist_viewers"))
+    @Query(value = "delete from wishlist_viewers where wishlist_id = :wishListId", nativeQuery = true)
+    int deleteViewerLinksByWishListId(Long wishListId);
+
+    // Fetch plans for a single wishlist, see WishListFetchPlan
+    @EntityGraph(WishList.GRAPH_WITH_WISHES)
+    Optional<WishList> findWithWishesById(Long id);
+
+    @EntityGraph(WishList.GRAPH_WITH_VIEWERS)
+    Optional<WishList> findWithViewersById(Long id);
+
+    // Keyset pagination over an owner's wishlists, ordered by (eventDate, id). Both H2 and MySQL sort
+    // nulls lowest, so wishlists without an event date come first
+    @Query("""
+            select w.id as id, w.eventName as eventName, w.eventDate as eventDate,
+                   size(w.wishes) as wishCount, size(w.viewers) as viewerCount
+            from WishList w
+            where w.owner.id = :ownerId
+            order by w.eventDate asc, w.id asc
+            """)
+    List<WishListSummary> findFirstPageByOwnerId(Long ownerId, Limit limit);
+
+    @Query("""
+            select w.id as id, w.eventName as eventName, w.eventDate as eventDate,
+                   size(w.wishes) as wishCount, size(w.viewers) as viewerCount
+            from WishList w
+            where w.owner.id = :ownerId
+              and (w.eventDate > :eventDate or (w.eventDate = :eventDate and w.id > :id))
+            order by w.eventDate asc, w.id asc
+            """)
+    List<WishListSummary> findPageByOwnerIdAfter(Long ownerId, LocalDate eventDate, Long id, Limit limit);
+
+    // Continues after an undated wishlist: the remaining undated ones, then all dated ones
+    @Query("""
+            select w.id as id, w.eventName as eventName, w.eventDate as eventDate,
+                   size(w.wishes) as wishCount, size(w.viewers) as viewerCount
+            from WishList w
+            where w.owner.id = :ownerId
+              and ((w.eventDate is null and w.id > :id) or w.eventDate is not null)
+            order by w.eventDate asc, w.id asc
+            """)
+    List<WishListSummary> findPageByOwnerIdAfterUndated(Long ownerId, Long id, Limit limit);
+
+    // Changes whenever one of the owner's wishlists is created, changed or deleted
+    @Query("""
+            select concat(count(w), '-', coalesce(sum(w.version), 0), '-', coalesce(max(w.id), 0))
+            from WishList w
+            where w.owner.id = :ownerId
+            """)
+    String findVersionStampByOwnerId(Long ownerId);
+
+    // Account export, streamed from an open cursor as DTOs so neither the result nor the persistence
+    // context grows with the number of rows, see AccountExportService
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("""
+            select new wishc1.wishlist.dto.AccountExportRow('wish', l.id, l.eventName, l.eventDate,
+                   w.id, w.name, w.description, w.addedDate, cast(null as String))
+            from WishList l left join l.wishes w
+            where l.owner.id = :ownerId
+            order by l.id asc, w.id asc
+            """)
+    Stream<AccountExportRow> streamExportWishRowsByOwnerId(Long ownerId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("""
+            select new wishc1.wishlist.dto.AccountExportRow('viewer', l.id, l.eventName, l.eventDate,
+                   cast(null as Long), cast(null as String), cast(null as String), cast(null as LocalDateTime), v.username)
+            from WishList l join l.viewers v
+            where l.owner.id = :ownerId
+            order by l.id asc, v.id asc
+            """)
+    Stream<AccountExportRow> streamExportViewerRowsByOwnerId(Long ownerId);
+
+    // Rows fetched per round trip while streaming; MySQL only honours it with useCursorFetch=true in DB_URL
+    String EXPORT_FETCH_SIZE = "500";
 }
@@ -0,0 +1,46 @@
+package wishc1.wishlist.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bulk operations on wishlists that run as JDBC batches without loading entities.
+ */
+public interface WishListRepositoryCustom {
+
+    /**
+     * Grant every user access to every wishlist, inserting only the wishlist_viewers rows that are missing.
+     * A grant inserted by a concurrent call is skipped rather than inserted twice.
+     *
+     * @param wishListIds the ids of the wishlists to share
+     * @param userIds     the ids of the users to share them with
+     * @return the number of grants that were new
+     */
+    int insertMissingViewers(Collection<Long> wishListIds, Collection<Long> userIds);
+
+    /**
+     * Add wishes to a wishlist with one batched insert into wishlist_wishes, without loading the
+     * wishlist's current wishes. The wishes must not be on the wishlist yet.
+     *
+     * @param wishListId the id of the wishlist
+     * @param wishIds    the ids of the wishes to add
+     */
+    void insertWishLinks(Long wishListId, Collection<Long> wishIds);
+
+    /**
+     * Bump the version and modification time of wishlists whose wishes or viewers were written without
+     * going through the WishList entity, so conditional GETs see the change.
+     *
+     * @param wishListIds the ids of the changed wishlists
+     */
+    void touchWishLists(Collection<Long> wishListIds);
+
+    /**
+     * Bump the version and modification time of every wishlist that contains one of the wishes.
+     * Call it before the wishlist links of the wishes are removed.
+     *
+     * @param wishIds the ids of the changed wishes
+     * @return the ids of the touched wishlists
+     */
+    List<Long> touchWishListsContainingWishes(Collection<Long> wishIds);
+}
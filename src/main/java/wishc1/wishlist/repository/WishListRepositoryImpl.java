@@ -0,0 +1,164 @@
+package wishc1.wishlist.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import wishc1.wishlist.model.WishList;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class WishListRepositoryImpl implements WishListRepositoryCustom {
+
+    private static final String VIEWERS_ROLE = WishList.class.getName() + ".viewers";
+    private static final String WISHES_ROLE = WishList.class.getName() + ".wishes";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final SecondLevelCacheEvictor cacheEvictor;
+
+    @Autowired
+    public WishListRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate, EntityManager entityManager,
+                                  EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.cacheEvictor = new SecondLevelCacheEvictor(entityManagerFactory);
+    }
+
+    @Override
+    public int insertMissingViewers(Collection<Long> wishListIds, Collection<Long> userIds) {
+        if (wishListIds.isEmpty() || userIds.isEmpty()) {
+            return 0;
+        }
+
+        // One read for the grants that already exist ...
+        Set<List<Long>> existingGrants = new HashSet<>();
+        jdbcTemplate.query(
+                "select wishlist_id, user_id from wishlist_viewers where wishlist_id in (:wishListIds) and user_id in (:userIds)",
+                Map.of("wishListIds", wishListIds, "userIds", userIds),
+                row -> {
+                    existingGrants.add(List.of(row.getLong("wishlist_id"), row.getLong("user_id")));
+                });
+
+        List<List<Long>> missingGrants = new ArrayList<>();
+        for (Long wishListId : new HashSet<>(wishListIds)) {
+            for (Long userId : new HashSet<>(userIds)) {
+                List<Long> grant = List.of(wishListId, userId);
+                if (!existingGrants.contains(grant)) {
+                    missingGrants.add(grant);
+                }
+            }
+        }
+        if (missingGrants.isEmpty()) {
+            return 0;
+        }
+
+        // ... and one batched insert for the ones that are missing. Each row is only inserted if it is
+        // still missing, so a grant written by a concurrent share or a resubmitted form is skipped.
+        List<Long> insertedGrantWishListIds;
+        try {
+            insertedGrantWishListIds = insertGrants(missingGrants);
+        } catch (DuplicateKeyException e) {
+            // A concurrent share committed one of the grants while this batch ran, the guard skips it now
+            insertedGrantWishListIds = insertGrants(missingGrants);
+        }
+        if (insertedGrantWishListIds.isEmpty()) {
+            return 0;
+        }
+        List<Long> changedWishListIds = insertedGrantWishListIds.stream().distinct().toList();
+        cacheEvictor.evictCollections(VIEWERS_ROLE, changedWishListIds);
+        touchWishLists(changedWishListIds);
+        return insertedGrantWishListIds.size();
+    }
+
+    // Returns the wishlist id of every grant that was inserted
+    private List<Long> insertGrants(List<List<Long>> grants) {
+        int[][] counts = jdbcTemplate.getJdbcTemplate().batchUpdate("""
+                        insert into wishlist_viewers (wishlist_id, user_id)
+                        select w.id, u.id from wish_list w, app_user u
+                        where w.id = ? and u.id = ?
+                          and not exists (select 1 from wishlist_viewers v where v.wishlist_id = w.id and v.user_id = u.id)
+                        """,
+                grants, grants.size(), (statement, grant) -> {
+                    statement.setLong(1, grant.get(0));
+                    statement.setLong(2, grant.get(1));
+                });
+        List<Long> inserted = new ArrayList<>();
+        int row = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count != 0) {
+                    inserted.add(grants.get(row).get(0));
+                }
+                row++;
+            }
+        }
+        return inserted;
+    }
+
+    @Override
+    public void insertWishLinks(Long wishListId, Collection<Long> wishIds) {
+        if (wishIds.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // The wishes may have been persisted in this transaction, their rows have to exist first
+            entityManager.flush();
+        }
+        jdbcTemplate.getJdbcTemplate().batchUpdate("insert into wishlist_wishes (wishlist_id, wish_id) values (?, ?)",
+                wishIds, wishIds.size(), (statement, wishId) -> {
+                    statement.setLong(1, wishListId);
+                    statement.setLong(2, wishId);
+                });
+        cacheEvictor.evictCollections(WISHES_ROLE, List.of(wishListId));
+        touchWishLists(List.of(wishListId));
+    }
+
+    @Override
+    public void touchWishLists(Collection<Long> wishListIds) {
+        if (wishListIds.isEmpty()) {
+            return;
+        }
+        // Not EntityManager#isJoinedToTransaction, which reports false for a request's open-in-view
+        // EntityManager even inside a transaction
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        if (inTransaction) {
+            // Write pending entity changes before the version moves on under them
+            entityManager.flush();
+        }
+        jdbcTemplate.update("update wish_list set version = version + 1, last_modified = :now where id in (:ids)",
+                Map.of("now", Timestamp.from(Instant.now()), "ids", wishListIds));
+        cacheEvictor.evictEntities(WishList.class, wishListIds);
+        if (inTransaction) {
+            // Wishlists already loaded in this transaction would otherwise be written back with the old version
+            for (Long id : wishListIds) {
+                WishList loaded = entityManager.getReference(WishList.class, id);
+                if (Hibernate.isInitialized(loaded)) {
+                    entityManager.refresh(loaded);
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<Long> touchWishListsContainingWishes(Collection<Long> wishIds) {
+        if (wishIds.isEmpty()) {
+            return List.of();
+        }
+        List<Long> wishListIds = jdbcTemplate.queryForList(
+                "select distinct wishlist_id from wishlist_wishes where wish_id in (:wishIds)",
+                Map.of("wishIds", wishIds), Long.class);
+        touchWishLists(wishListIds);
+        return wishListIds;
+    }
+}
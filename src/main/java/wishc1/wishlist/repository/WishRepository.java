@@ -1,14 +1,69 @@
 package wishc1.wishlist.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import wishc1.wishlist.dto.WishSearchEntry;
 import wishc1.wishlist.model.Wish;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface WishRepository extends JpaRepository<Wish, Long> {
+public interface WishRepository extends JpaRepository<Wish, Long>, WishRepositoryCustom {
 
     // Find a wish by name
     Optional<Wish> findByName(String name);
+
+    // Streams only the columns needed to build the wish search index
+    @Query("select w.id as id, w.name as name, w.description as description from Wish w")
+    Stream<WishSearchEntry> streamSearchEntries();
+
+    // Keyset pagination over the catalog, one pair of queries per WishSort, see WishService#getWishPage
+    List<Wish> findAllByOrderByNameAscIdAsc(Limit limit);
+
+    @Query("""
+            select w from Wish w
+            where w.name > :name or (w.name = :name and w.id > :id)
+            order by w.name asc, w.id asc
+            """)
+    List<Wish> findPageOrderByNameAfter(String name, Long id, Limit limit);
+
+    // Both H2 and MySQL sort nulls lowest, so wishes without an added date come last
+    List<Wish> findAllByOrderByAddedDateDescIdDesc(Limit limit);
+
+    @Query("""
+            select w from Wish w
+            where w.addedDate < :addedDate or (w.addedDate = :addedDate and w.id < :id) or w.addedDate is null
+            order by w.addedDate desc, w.id desc
+            """)
+    List<Wish> findPageOrderByAddedDateAfter(LocalDateTime addedDate, Long id, Limit limit);
+
+    List<Wish> findByAddedDateIsNullAndIdLessThanOrderByIdDesc(Long id, Limit limit);
+
+    List<Wish> findAllByOrderByIdAsc(Limit limit);
+
+    List<Wish> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Set-based operations for bulk delete, none of them load entities
+    @Query("select w.id from Wish w where w.id in :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    // Native writes name the tables they touch, otherwise Hibernate clears the whole second-level cache
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "wishlist_wishes"))
+    @Query(value = "delete from wishlist_wishes where wish_id in (:ids)", nativeQuery = true)
+    int deleteWishListLinksByWishIds(Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Wish w where w.id in :ids")
+    int deleteAllByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,27 @@
+package wishc1.wishlist.repository;
+
+import wishc1.wishlist.dto.WishUpdate;
+
+import java.util.List;
+
+/**
+ * Bulk operations on wishes that run as JDBC batches without loading entities, and keep the
+ * persistence context small while they run.
+ */
+public interface WishRepositoryCustom {
+
+    /**
+     * Update name and description of several wishes in one JDBC batch.
+     *
+     * @param updates the new values, one per wish
+     * @return the update count per entry, in the order of the updates
+     */
+    int[] batchUpdateNamesAndDescriptions(List<WishUpdate> updates);
+
+    /**
+     * Write the pending changes and detach every entity of the current persistence context. A
+     * bulk operation whose transactions share one context, as under open-in-view, calls this after
+     * each batch so the context does not keep everything saved so far.
+     */
+    void flushAndClear();
+}
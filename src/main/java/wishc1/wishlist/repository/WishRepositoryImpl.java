@@ -0,0 +1,42 @@
+package wishc1.wishlist.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import wishc1.wishlist.dto.WishUpdate;
+import wishc1.wishlist.model.Wish;
+
+import java.util.List;
+
+public class WishRepositoryImpl implements WishRepositoryCustom {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final SecondLevelCacheEvictor cacheEvictor;
+
+    @Autowired
+    public WishRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager,
+                              EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.cacheEvictor = new SecondLevelCacheEvictor(entityManagerFactory);
+    }
+
+    @Override
+    public int[] batchUpdateNamesAndDescriptions(List<WishUpdate> updates) {
+        cacheEvictor.evictEntities(Wish.class, updates.stream().map(WishUpdate::id).toList());
+        return jdbcTemplate.batchUpdate("update wishes set name = ?, description = ? where id = ?",
+                updates, updates.size(), (statement, update) -> {
+                    statement.setString(1, update.name());
+                    statement.setString(2, update.description());
+                    statement.setLong(3, update.id());
+                })[0];
+    }
+
+    @Override
+    public void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
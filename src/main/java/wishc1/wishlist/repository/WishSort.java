@@ -0,0 +1,14 @@
+package wishc1.wishlist.repository;
+
+/**
+ * Orders for paging through the wish catalog. Each order ends in the wish id, so every
+ * position in it is unique and can be used as a keyset cursor.
+ */
+public enum WishSort {
+    /** By name, A to Z. */
+    NAME,
+    /** By added date, newest first; wishes without an added date come last. */
+    ADDED_DATE,
+    /** By id, the order in which the wishes were created. */
+    ID
+}
@@ -7,16 +7,38 @@ import wishc1.wishlist.model.AppUser;
 import java.util.Collection;
 import java.util.Collections;
 
+/**
+ * The logged-in user as kept in the session. Only the id, email and username are stored so the
+ * serialized session stays small; the AppUser entity is loaded through AppUserService when needed.
+ */
 public class CustomUserDetails implements UserDetails {
 
-    private final AppUser appUser;
+    private final Long id;
+    private final String email;
+    private final String appUsername;
+    // Only needed to check the password at login, never written to the session store
+    private final transient String password;
 
     public CustomUserDetails(AppUser appUser) {
-        this.appUser = appUser;
+        this.id = appUser.getId();
+        this.email = appUser.getEmail();
+        this.appUsername = appUser.getUsername();
+        this.password = appUser.getPassword();
     }
 
-    public AppUser getAppUser() {
-        return appUser;
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * @return the AppUser username shown to other users
+     */
+    public String getAppUsername() {
+        return appUsername;
     }
 
     @Override
@@ -26,12 +48,12 @@ public class CustomUserDetails implements UserDetails {
 
     @Override
     public String getPassword() {
-        return appUser.getPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return appUser.getEmail();  // email is used for login (not to be confused with AppUser Username)
+        return email;  // email is used for login (not to be confused with AppUser Username)
     }
 
     @Override
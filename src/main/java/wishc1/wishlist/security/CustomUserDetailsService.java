@@ -2,6 +2,7 @@ package wishc1.wishlist.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -9,20 +10,41 @@ import wishc1.wishlist.model.AppUser;
 import wishc1.wishlist.service.AppUserService;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final AppUserService appUserService;
+    private final UserDetailsCache userDetailsCache;
 
     @Autowired
-    public CustomUserDetailsService(AppUserService appUserService) {
+    public CustomUserDetailsService(AppUserService appUserService, UserDetailsCache userDetailsCache) {
         this.appUserService = appUserService;
+        this.userDetailsCache = userDetailsCache;
     }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        UserDetails cached = userDetailsCache.getUserFromCache(email);
+        if (cached != null) {
+            return cached;
+        }
+
         AppUser appUser = appUserService.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
-        return new CustomUserDetails(appUser);
+        CustomUserDetails userDetails = new CustomUserDetails(appUser);
+        userDetailsCache.putUserInCache(userDetails);
+        return userDetails;
+    }
+
+    /**
+     * Store a rehashed password, called after a successful login whose stored hash was made
+     * with a lower work factor than the configured one.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        AppUser appUser = appUserService.updatePasswordHash(user.getUsername(), newPassword);
+        CustomUserDetails userDetails = new CustomUserDetails(appUser);
+        userDetailsCache.putUserInCache(userDetails);
+        return userDetails;
     }
 }
@@ -0,0 +1,45 @@
+package wishc1.wishlist.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded cache of the principals loaded by CustomUserDetailsService, keyed by email.
+ * Entries expire after a fixed time and are removed explicitly by AppUserService when a user changes.
+ */
+@Component
+public class UserDetailsCache implements UserCache {
+
+    private final Cache<String, UserDetails> cache;
+
+    @Autowired
+    public UserDetailsCache(@Value("${wishlist.user-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${wishlist.user-cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String email) {
+        return cache.getIfPresent(email);
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        cache.put(user.getUsername(), user);
+    }
+
+    @Override
+    public void removeUserFromCache(String email) {
+        cache.invalidate(email);
+    }
+}
@@ -0,0 +1,74 @@
+package wishc1.wishlist.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import wishc1.wishlist.dto.AccountExportRow;
+import wishc1.wishlist.repository.WishListRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exports a user's wishlists, their wishes and the users they are shared with. Rows are read from
+ * database cursors and written to the output as they arrive, in whichever format is asked for.
+ */
+@Service
+public class AccountExportService {
+
+    // Rows written between two flushes, so the client receives the export while it is being read
+    private static final int FLUSH_INTERVAL = 200;
+
+    private final WishListRepository wishListRepository;
+
+    @Autowired
+    public AccountExportService(WishListRepository wishListRepository) {
+        this.wishListRepository = wishListRepository;
+    }
+
+    /**
+     * Write the export of a user's account to a stream. The stream is flushed but not closed.
+     *
+     * @param ownerId the ID of the user
+     * @param format  the file format to write
+     * @param out     the stream to write to
+     * @return the number of rows written
+     * @throws IOException if writing to the stream fails, for example because the client went away
+     */
+    @Transactional(readOnly = true)
+    public long export(Long ownerId, ExportFormat format, OutputStream out) throws IOException {
+        Writer text = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        AccountExportWriter writer = switch (format) {
+            case JSON -> new JsonAccountExportWriter(text);
+            case CSV -> new CsvAccountExportWriter(text);
+        };
+
+        // One query after the other, so only one cursor is open on the connection at a time
+        long count;
+        try (Stream<AccountExportRow> rows = wishListRepository.streamExportWishRowsByOwnerId(ownerId)) {
+            count = write(rows, writer, 0);
+        }
+        try (Stream<AccountExportRow> rows = wishListRepository.streamExportViewerRowsByOwnerId(ownerId)) {
+            count = write(rows, writer, count);
+        }
+        writer.finish();
+        return count;
+    }
+
+    private static long write(Stream<AccountExportRow> rows, AccountExportWriter writer, long count) throws IOException {
+        Iterator<AccountExportRow> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            writer.writeRow(iterator.next());
+            if (++count % FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+        }
+        return count;
+    }
+}
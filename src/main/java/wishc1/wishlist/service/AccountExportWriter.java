@@ -0,0 +1,20 @@
+package wishc1.wishlist.service;
+
+import wishc1.wishlist.dto.AccountExportRow;
+
+import java.io.IOException;
+
+/**
+ * Writes account export rows in one file format. Rows are written as they arrive and nothing is
+ * kept between them, so memory use does not depend on the size of the export.
+ */
+interface AccountExportWriter {
+
+    void writeRow(AccountExportRow row) throws IOException;
+
+    // Push the rows written so far to the client
+    void flush() throws IOException;
+
+    // Complete the document and flush, the underlying stream stays open
+    void finish() throws IOException;
+}
@@ -1,52 +1,105 @@
 package wishc1.wishlist.service;
 
+import io.micrometer.core.annotation.Timed;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import wishc1.wishlist.dto.UserSearchResult;
 import wishc1.wishlist.exception.UserAlreadyExistsException;
 import wishc1.wishlist.model.AppUser;
 import wishc1.wishlist.repository.AppUserRepository;
 import wishc1.wishlist.security.CustomUserDetails;
+import wishc1.wishlist.security.UserDetailsCache;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @Service
+@Timed("wishlist.service")
 public class AppUserService {
 
     private final AppUserRepository appUserRepository;
     private final PasswordEncoder passwordEncoder;
     private final MessageSource messageSource;
+    private final UserDirectoryIndex userDirectoryIndex;
+    private final UserDetailsCache userDetailsCache;
+    private final UserAvailabilityFilter userAvailabilityFilter;
 
     @Autowired
-    public AppUserService(AppUserRepository appUserRepository, PasswordEncoder passwordEncoder, MessageSource messageSource) {
+    public AppUserService(AppUserRepository appUserRepository, PasswordEncoder passwordEncoder, MessageSource messageSource,
+                          UserDirectoryIndex userDirectoryIndex, UserDetailsCache userDetailsCache,
+                          UserAvailabilityFilter userAvailabilityFilter) {
         this.appUserRepository = appUserRepository;
         this.passwordEncoder = passwordEncoder;
         this.messageSource = messageSource;
+        this.userDirectoryIndex = userDirectoryIndex;
+        this.userDetailsCache = userDetailsCache;
+        this.userAvailabilityFilter = userAvailabilityFilter;
     }
 
     public Optional<AppUser> findByEmail(String email) {
         return appUserRepository.findByEmail(email);
     }
 
+    /**
+     * Register a user with a single insert. A taken email or username is detected by the unique
+     * constraints, which also covers two registrations racing for the same value.
+     *
+     * @param appUser the user to register, with the raw password
+     * @return the saved AppUser
+     * @throws UserAlreadyExistsException if the email or username is already registered
+     */
     public AppUser saveUser(AppUser appUser) {
-        // Check if email is already registered
-        if (appUserRepository.existsByEmail(appUser.getEmail())) {
-            String message = messageSource.getMessage("error.email.in.use", null, LocaleContextHolder.getLocale());
-            throw new UserAlreadyExistsException(message);
+        String rawPassword = appUser.getPassword();
+        appUser.setPassword(passwordEncoder.encode(rawPassword));
+        AppUser savedUser;
+        try {
+            savedUser = appUserRepository.saveAndFlush(appUser);
+        } catch (DataIntegrityViolationException e) {
+            appUser.setPassword(rawPassword);  // The form is shown again, keep the hash out of it
+            throw userAlreadyExists(e);
         }
+        userDirectoryIndex.add(savedUser.getUsername(), savedUser.getEmail());
+        userAvailabilityFilter.add(savedUser.getUsername(), savedUser.getEmail());
+        userDetailsCache.removeUserFromCache(savedUser.getEmail());  // Drop any principal cached before the change
+        return savedUser;
+    }
 
-        // Check if username is already taken
-        if (appUserRepository.existsByUsername(appUser.getUsername())) {
+    private RuntimeException userAlreadyExists(DataIntegrityViolationException e) {
+        String constraint = e.getCause() instanceof ConstraintViolationException violation
+                ? String.valueOf(violation.getConstraintName()).toLowerCase(Locale.ROOT) : "";
+        if (constraint.contains(AppUser.EMAIL_CONSTRAINT)) {
+            String message = messageSource.getMessage("error.email.in.use", null, LocaleContextHolder.getLocale());
+            return new UserAlreadyExistsException("email", message);
+        }
+        if (constraint.contains(AppUser.USERNAME_CONSTRAINT)) {
             String message = messageSource.getMessage("error.username.in.use", null, LocaleContextHolder.getLocale());
-            throw new UserAlreadyExistsException(message);
+            return new UserAlreadyExistsException("username", message);
         }
+        return e;  // Some other constraint, not a duplicate registration
+    }
 
-        appUser.setPassword(passwordEncoder.encode(appUser.getPassword()));
+    /**
+     * Replace the stored password hash of a user, without hashing it again.
+     *
+     * @param email        the email of the user
+     * @param passwordHash the new hash
+     * @return the updated AppUser
+     */
+    @Transactional
+    public AppUser updatePasswordHash(String email, String passwordHash) {
+        AppUser appUser = appUserRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
+        appUser.setPassword(passwordHash);
+        userDetailsCache.removeUserFromCache(email);
         return appUserRepository.save(appUser);
     }
 
@@ -58,8 +111,44 @@ public class AppUserService {
     public List<AppUser> getAllUsers() {
         return appUserRepository.findAll();
     }
+
+    /**
+     * Search the user directory by username or email prefix.
+     *
+     * @param prefix          the text typed so far
+     * @param excludeUsername a username to leave out of the results
+     * @param page            the zero-based page number
+     * @param size            the number of usernames per page
+     * @return one page of matching usernames
+     */
+    public UserSearchResult searchUsers(String prefix, String excludeUsername, int page, int size) {
+        return userDirectoryIndex.search(prefix, excludeUsername, page, size);
+    }
+
+    /**
+     * Check whether a username can still be registered.
+     *
+     * @param username the username to check
+     * @return true if no user has the username
+     */
+    public boolean isUsernameAvailable(String username) {
+        return userAvailabilityFilter.isUsernameAvailable(username);
+    }
+
+    /**
+     * Check whether an email can still be registered.
+     *
+     * @param email the email to check
+     * @return true if no user has the email
+     */
+    public boolean isEmailAvailable(String email) {
+        return userAvailabilityFilter.isEmailAvailable(email);
+    }
+
     /**
      * Retrieve the currently logged-in AppUser from the security context.
+     * The session principal only carries the user's id, which is resolved through the second-level
+     * cache; other principals are resolved through the user-details cache before falling back to the database.
      *
      * @return the currently logged-in AppUser
      * @throws RuntimeException if the user is not authenticated
@@ -68,18 +157,47 @@ public class AppUserService {
         Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
         if (principal instanceof CustomUserDetails) {
-            return ((CustomUserDetails) principal).getAppUser();
+            return getUserById(((CustomUserDetails) principal).getId());
         } else if (principal instanceof UserDetails) {
-            String email = ((UserDetails) principal).getUsername();
-            return appUserRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("Logged-in user not found in the database."));
+            return findLoggedInUserByEmail(((UserDetails) principal).getUsername());
         } else if (principal instanceof String) {
-            return appUserRepository.findByEmail((String) principal)
-                    .orElseThrow(() -> new RuntimeException("Logged-in user not found in the database."));
+            return findLoggedInUserByEmail((String) principal);
         }
 
         throw new RuntimeException("No authenticated user found.");
     }
+
+    private AppUser findLoggedInUserByEmail(String email) {
+        if (userDetailsCache.getUserFromCache(email) instanceof CustomUserDetails cached) {
+            return getUserById(cached.getId());
+        }
+        return appUserRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("Logged-in user not found in the database."));
+    }
+
+    /**
+     * Retrieve an AppUser by ID, normally served from the second-level cache.
+     *
+     * @param id the ID of the user
+     * @return the AppUser
+     * @throws RuntimeException if no user has the ID
+     */
+    public AppUser getUserById(Long id) {
+        return appUserRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Logged-in user not found in the database."));
+    }
+
+    /**
+     * Get a reference to an AppUser without loading it, for setting an association such as a
+     * wishlist owner when only the ID is known.
+     *
+     * @param id the ID of the user
+     * @return a lazy reference to the AppUser
+     */
+    public AppUser getUserReference(Long id) {
+        return appUserRepository.getReferenceById(id);
+    }
+
     public List<AppUser> getUsersByEmails(List<String> emails) {
         return appUserRepository.findAllByEmailIn(emails);
     }
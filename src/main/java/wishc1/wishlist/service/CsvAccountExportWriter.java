@@ -0,0 +1,74 @@
+package wishc1.wishlist.service;
+
+import wishc1.wishlist.dto.AccountExportRow;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes the account export as RFC 4180 CSV: a header line with the column names, CRLF line
+ * endings, empty fields for nulls and quotes around fields that need them. Wish names and viewer
+ * usernames come from other users, so a field a spreadsheet would run as a formula is written
+ * quoted with a leading apostrophe, which CsvWishImportReader drops again.
+ */
+class CsvAccountExportWriter implements AccountExportWriter {
+
+    private static final String LINE_END = "\r\n";
+    // First characters that make spreadsheet programs read a cell as a formula
+    private static final String FORMULA_STARTS = "=+-@\t\r";
+
+    private final Writer out;
+
+    CsvAccountExportWriter(Writer out) throws IOException {
+        this.out = out;
+        writeLine(AccountExportRow.COLUMNS);
+    }
+
+    @Override
+    public void writeRow(AccountExportRow row) throws IOException {
+        writeLine(row.values());
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        out.flush();
+    }
+
+    private void writeLine(List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                writeField(value.toString());
+            }
+        }
+        out.write(LINE_END);
+    }
+
+    /**
+     * @return whether a spreadsheet would run the field as a formula
+     */
+    static boolean isFormula(String value) {
+        return !value.isEmpty() && FORMULA_STARTS.indexOf(value.charAt(0)) >= 0;
+    }
+
+    private void writeField(String value) throws IOException {
+        if (isFormula(value)) {
+            value = "'" + value;
+        } else if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
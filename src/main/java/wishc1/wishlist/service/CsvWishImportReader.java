@@ -0,0 +1,111 @@
+package wishc1.wishlist.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a wish import from RFC 4180 CSV. The first line names the columns; quoted fields may
+ * contain commas, quotes and line breaks. A leading byte order mark, as written by spreadsheet
+ * programs, is skipped, and so is the apostrophe the account export puts before formula-like fields.
+ */
+class CsvWishImportReader implements WishImportReader {
+
+    private static final int END = -1;
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+    private static final List<String> COLUMNS = List.of("record", "name", "description", "addedDate");
+
+    private final BufferedReader in;
+    // Position of each of COLUMNS in a record, -1 if the upload does not have it
+    private final int[] positions = new int[COLUMNS.size()];
+    private long number;
+
+    CsvWishImportReader(BufferedReader in) throws IOException {
+        this.in = in;
+        in.mark(1);
+        if (in.read() != BYTE_ORDER_MARK) {
+            in.reset();
+        }
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("The file is empty");
+        }
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < header.size(); i++) {
+            String column = WishImportReader.column(header.get(i));
+            if (column != null) {
+                positions[COLUMNS.indexOf(column)] = i;
+            }
+        }
+        if (positions[COLUMNS.indexOf("name")] < 0) {
+            throw new IllegalArgumentException("The header line has no name column");
+        }
+    }
+
+    @Override
+    public WishImportRow next() throws IOException {
+        List<String> fields = readRecord();
+        if (fields == null) {
+            return null;
+        }
+        number++;
+        return new WishImportRow(number, field(fields, 0), field(fields, 1), field(fields, 2), field(fields, 3));
+    }
+
+    private String field(List<String> fields, int column) {
+        int index = positions[column];
+        if (index < 0 || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        String value = fields.get(index);
+        if (value.startsWith("'") && CsvAccountExportWriter.isFormula(value.substring(1))) {
+            return value.substring(1);
+        }
+        return value;
+    }
+
+    // One record, or null at the end of the input; a line break inside quotes belongs to the field
+    private List<String> readRecord() throws IOException {
+        int c = in.read();
+        if (c == END) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == END) {
+                    throw new IllegalArgumentException("A quoted field is not closed");
+                }
+                if (c == '"') {
+                    c = in.read();
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == END) {
+                if (c == '\r') {
+                    in.mark(1);
+                    if (in.read() != '\n') {
+                        in.reset();
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = in.read();
+        }
+    }
+}
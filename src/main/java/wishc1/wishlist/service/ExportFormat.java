@@ -0,0 +1,28 @@
+package wishc1.wishlist.service;
+
+/**
+ * File formats of the account export, which the wish import reads as well. Both carry the same
+ * rows, see AccountExportRow.
+ */
+public enum ExportFormat {
+    /** A JSON array with one object per row, null columns left out. */
+    JSON("application/json", "json"),
+    /** RFC 4180 CSV with a header line. */
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+    private final String fileExtension;
+
+    ExportFormat(String mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+}
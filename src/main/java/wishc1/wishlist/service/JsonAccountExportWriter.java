@@ -0,0 +1,58 @@
+package wishc1.wishlist.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import wishc1.wishlist.dto.AccountExportRow;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes the account export as a JSON array with one object per row. Null columns are left out,
+ * dates are written as ISO-8601 strings.
+ */
+class JsonAccountExportWriter implements AccountExportWriter {
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private final JsonGenerator json;
+
+    JsonAccountExportWriter(Writer out) throws IOException {
+        this.json = JSON_FACTORY.createGenerator(out);
+        json.writeStartArray();
+    }
+
+    @Override
+    public void writeRow(AccountExportRow row) throws IOException {
+        List<Object> values = row.values();
+        json.writeStartObject();
+        for (int i = 0; i < values.size(); i++) {
+            Object value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            json.writeFieldName(AccountExportRow.COLUMNS.get(i));
+            if (value instanceof Long number) {
+                json.writeNumber(number);
+            } else {
+                json.writeString(value.toString());
+            }
+        }
+        json.writeEndObject();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        json.flush();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        json.writeEndArray();
+        json.close();
+    }
+}
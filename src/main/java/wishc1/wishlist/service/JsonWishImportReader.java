@@ -0,0 +1,66 @@
+package wishc1.wishlist.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads a wish import from a JSON array with one object per row, token by token. Fields that are
+ * not import columns are skipped, whatever their value.
+ */
+class JsonWishImportReader implements WishImportReader {
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .build();
+
+    private final JsonParser json;
+    private long number;
+
+    JsonWishImportReader(Reader in) throws IOException {
+        this.json = JSON_FACTORY.createParser(in);
+        if (json.nextToken() != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("The file is not a JSON array");
+        }
+    }
+
+    @Override
+    public WishImportRow next() throws IOException {
+        JsonToken token = json.nextToken();
+        if (token == JsonToken.END_ARRAY || token == null) {
+            return null;
+        }
+        number++;
+        if (token != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Row " + number + " is not a JSON object");
+        }
+
+        String record = null;
+        String name = null;
+        String description = null;
+        String addedDate = null;
+        while (json.nextToken() == JsonToken.FIELD_NAME) {
+            String column = WishImportReader.column(json.currentName());
+            JsonToken value = json.nextToken();
+            if (value.isStructStart()) {
+                json.skipChildren();
+                continue;
+            }
+            String text = value == JsonToken.VALUE_NULL ? null : json.getText();
+            if (column == null || text == null || text.isEmpty()) {
+                continue;
+            }
+            switch (column) {
+                case "record" -> record = text;
+                case "name" -> name = text;
+                case "description" -> description = text;
+                case "addedDate" -> addedDate = text;
+            }
+        }
+        return new WishImportRow(number, record, name, description, addedDate);
+    }
+}
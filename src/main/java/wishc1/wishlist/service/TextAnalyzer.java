@@ -0,0 +1,54 @@
+package wishc1.wishlist.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text into search terms. Terms are lower-cased and folded so that searches ignore case and
+ * accents: the Danish letters and their German counterparts are spelled out (å = aa, æ = ä = ae,
+ * ø = ö = oe, so "Ålborg" finds "Aalborg"), other accents are dropped (é = e).
+ */
+final class TextAnalyzer {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * @param text the text to split, may be null
+     * @return the folded terms in the order they appear, with repetitions
+     */
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String term : SEPARATORS.split(fold(text))) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    static String fold(String text) {
+        // Compose first so "a" followed by a combining ring is treated like "å"
+        String lowerCased = Normalizer.normalize(text, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+        StringBuilder folded = new StringBuilder(lowerCased.length());
+        for (int i = 0; i < lowerCased.length(); i++) {
+            char c = lowerCased.charAt(i);
+            switch (c) {
+                case 'å' -> folded.append("aa");
+                case 'æ', 'ä' -> folded.append("ae");
+                case 'ø', 'ö' -> folded.append("oe");
+                default -> folded.append(c);
+            }
+        }
+        return COMBINING_MARKS.matcher(Normalizer.normalize(folded, Normalizer.Form.NFD)).replaceAll("");
+    }
+}
@@ -0,0 +1,115 @@
+package wishc1.wishlist.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import wishc1.wishlist.dto.UserDirectoryEntry;
+import wishc1.wishlist.repository.AppUserRepository;
+
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Answers "is this username/email still free?" for the registration form. Bloom filters over all
+ * usernames and emails rule out most values in memory; the database is only asked when a filter
+ * reports a possible match. Users registered on other instances are added by the
+ * UserDirectoryRefresher, so for up to its refresh interval such a user can be reported available;
+ * registration itself still fails on the unique columns.
+ */
+@Service
+public class UserAvailabilityFilter {
+
+    private final AppUserRepository appUserRepository;
+    private final long expectedUsers;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter usernames;
+    private volatile BloomFilter emails;
+    // False until the filters hold every registered user, until then every check goes to the database
+    private volatile boolean ready;
+
+    @Autowired
+    public UserAvailabilityFilter(AppUserRepository appUserRepository,
+                                  @Value("${wishlist.availability-filter.expected-users:100000}") long expectedUsers,
+                                  @Value("${wishlist.availability-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.appUserRepository = appUserRepository;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+        this.usernames = new BloomFilter(expectedUsers, falsePositiveRate);
+        this.emails = new BloomFilter(expectedUsers, falsePositiveRate);
+    }
+
+    /**
+     * Build the filters from the database once the application has started. They are sized for
+     * twice the current number of users, or the configured number if that is larger, so
+     * registrations until the next restart keep the false positive rate close to the configured one.
+     * Runs in the background, checks go to the database until it has finished.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        ready = false;
+        long capacity = Math.max(expectedUsers, appUserRepository.count() * 2);
+        // Publish the new filters before scanning, so a user registered during the scan is either
+        // added to them directly or already committed and found by the scan
+        usernames = new BloomFilter(capacity, falsePositiveRate);
+        emails = new BloomFilter(capacity, falsePositiveRate);
+        try (Stream<UserDirectoryEntry> entries = appUserRepository.streamDirectoryEntries()) {
+            entries.forEach(entry -> add(entry.getUsername(), entry.getEmail()));
+        }
+        ready = true;
+    }
+
+    /**
+     * Add a user to the filters, for example right after registration.
+     *
+     * @param username the username of the user
+     * @param email    the email of the user
+     */
+    public void add(String username, String email) {
+        usernames.put(normalize(username));
+        emails.put(normalize(email));
+    }
+
+    /**
+     * Check whether a username can still be registered.
+     *
+     * @param username the username to check
+     * @return true if no user has the username
+     */
+    public boolean isUsernameAvailable(String username) {
+        if (username == null || username.isBlank()) {
+            return false;
+        }
+        if (ready && !usernames.mightContain(normalize(username))) {
+            return true;
+        }
+        return !appUserRepository.existsByUsername(username);
+    }
+
+    /**
+     * Check whether an email can still be registered.
+     *
+     * @param email the email to check
+     * @return true if no user has the email
+     */
+    public boolean isEmailAvailable(String email) {
+        if (email == null || email.isBlank()) {
+            return false;
+        }
+        if (ready && !emails.mightContain(normalize(email))) {
+            return true;
+        }
+        return !appUserRepository.existsByEmail(email);
+    }
+
+    // Lower-cased so a case-insensitive database collation can never report a value taken that the filter missed
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,119 @@
+package wishc1.wishlist.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import wishc1.wishlist.dto.UserDirectoryEntry;
+import wishc1.wishlist.dto.UserSearchResult;
+import wishc1.wishlist.repository.AppUserRepository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory prefix index over usernames and emails, used to suggest share recipients
+ * without loading every user from the database. Users registered on other instances are added by
+ * the UserDirectoryRefresher.
+ */
+@Service
+public class UserDirectoryIndex {
+
+    // Separates the search term from the username so several users can share a term prefix
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final AppUserRepository appUserRepository;
+
+    // Keys are "<lower-cased term>\0<username>", values are usernames
+    private final ConcurrentSkipListMap<String, String> usernamesByTerm = new ConcurrentSkipListMap<>();
+
+    @Autowired
+    public UserDirectoryIndex(AppUserRepository appUserRepository) {
+        this.appUserRepository = appUserRepository;
+    }
+
+    /**
+     * Build the index from the database once the application has started. Runs in the background,
+     * so suggestions can be incomplete for a moment after startup.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        usernamesByTerm.clear();
+        try (Stream<UserDirectoryEntry> entries = appUserRepository.streamDirectoryEntries()) {
+            entries.forEach(entry -> add(entry.getUsername(), entry.getEmail()));
+        }
+    }
+
+    /**
+     * Add a user to the index, for example right after registration.
+     *
+     * @param username the username of the user
+     * @param email    the email of the user
+     */
+    public void add(String username, String email) {
+        usernamesByTerm.put(key(username, username), username);
+        usernamesByTerm.put(key(email, username), username);
+    }
+
+    /**
+     * Find usernames whose username or email starts with the given prefix.
+     *
+     * @param prefix          the text typed so far
+     * @param excludeUsername a username to leave out of the results, typically the current user
+     * @param page            the zero-based page number
+     * @param size            the number of usernames per page
+     * @return the matching usernames in alphabetical order of the matched term
+     */
+    public UserSearchResult search(String prefix, String excludeUsername, int page, int size) {
+        String normalizedPrefix = normalize(prefix);
+        if (normalizedPrefix.isEmpty()) {
+            return new UserSearchResult(List.of(), page, false);
+        }
+
+        // A page beyond the largest possible offset is empty, instead of an overflowing offset
+        int offset;
+        try {
+            offset = Math.multiplyExact(page, size);
+        } catch (ArithmeticException e) {
+            return new UserSearchResult(List.of(), page, false);
+        }
+
+        NavigableMap<String, String> matches =
+                usernamesByTerm.subMap(normalizedPrefix, true, normalizedPrefix + Character.MAX_VALUE, false);
+
+        // A user can match on both username and email, so keep each username once
+        Set<String> usernames = new LinkedHashSet<>();
+        long wanted = (long) offset + size + 1;
+        for (String username : matches.values()) {
+            if (!username.equals(excludeUsername)) {
+                usernames.add(username);
+                if (usernames.size() >= wanted) {
+                    break;
+                }
+            }
+        }
+
+        List<String> all = new ArrayList<>(usernames);
+        int from = Math.min(offset, all.size());
+        int to = Math.min(from + size, all.size());
+        return new UserSearchResult(all.subList(from, to), page, all.size() > to);
+    }
+
+    private static String key(String term, String username) {
+        return normalize(term) + KEY_SEPARATOR + username;
+    }
+
+    private static String normalize(String term) {
+        return term == null ? "" : term.trim().toLowerCase(Locale.ROOT);
+    }
+}
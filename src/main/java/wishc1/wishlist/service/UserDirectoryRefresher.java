@@ -0,0 +1,71 @@
+package wishc1.wishlist.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import wishc1.wishlist.dto.UserDirectoryEntry;
+import wishc1.wishlist.repository.AppUserRepository;
+
+import java.util.List;
+
+/**
+ * Adds the users registered on other instances to the in-memory user directory index and
+ * availability filters. Registrations on this instance are added to them directly, but with
+ * sessions in the database any instance can serve a registration, and a user missing from the
+ * filters would be reported as available.
+ * <p>
+ * Users are never renamed or deleted, so it is enough to read the users with a higher id than the
+ * last one seen. An instance can commit a user after another one committed a user with a higher id,
+ * so each refresh reads the last {@link #OVERLAP} ids again; adding a user twice changes nothing.
+ */
+@Service
+public class UserDirectoryRefresher {
+
+    static final long OVERLAP = 100;
+
+    private final AppUserRepository appUserRepository;
+    private final UserDirectoryIndex userDirectoryIndex;
+    private final UserAvailabilityFilter userAvailabilityFilter;
+
+    // Null until the application has started, the rebuilds read everyone registered before
+    private volatile Long lastSeenId;
+
+    @Autowired
+    public UserDirectoryRefresher(AppUserRepository appUserRepository, UserDirectoryIndex userDirectoryIndex,
+                                  UserAvailabilityFilter userAvailabilityFilter) {
+        this.appUserRepository = appUserRepository;
+        this.userDirectoryIndex = userDirectoryIndex;
+        this.userAvailabilityFilter = userAvailabilityFilter;
+    }
+
+    /**
+     * Start after the users already registered, which the index and filters read when they are
+     * built at startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        lastSeenId = appUserRepository.findMaxId();
+    }
+
+    /**
+     * Add the users registered since the last refresh, on any instance.
+     */
+    @Scheduled(fixedDelayString = "${wishlist.user-directory.refresh-interval:PT30S}",
+            initialDelayString = "${wishlist.user-directory.refresh-interval:PT30S}")
+    public void refresh() {
+        Long after = lastSeenId;
+        if (after == null) {
+            return;
+        }
+        List<UserDirectoryEntry> entries = appUserRepository.findDirectoryEntriesAfter(Math.max(after - OVERLAP, 0));
+        for (UserDirectoryEntry entry : entries) {
+            userDirectoryIndex.add(entry.getUsername(), entry.getEmail());
+            userAvailabilityFilter.add(entry.getUsername(), entry.getEmail());
+        }
+        if (!entries.isEmpty()) {
+            lastSeenId = Math.max(after, entries.get(entries.size() - 1).getId());
+        }
+    }
+}
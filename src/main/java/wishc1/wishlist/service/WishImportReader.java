@@ -0,0 +1,30 @@
+package wishc1.wishlist.service;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Reads the rows of a wish import one at a time, so an upload is never held in memory as a whole.
+ * Both formats accept the columns of a spreadsheet (name, description, addedDate) as well as the
+ * columns of an account export (record, wishName, wishDescription, wishAddedDate).
+ */
+interface WishImportReader {
+
+    /**
+     * @return the next row, or null after the last one
+     * @throws IOException if the upload cannot be read
+     * @throws IllegalArgumentException if the upload is not well-formed
+     */
+    WishImportRow next() throws IOException;
+
+    // Case, spaces, dashes and underscores are ignored, so "Added Date" finds the addedDate column
+    static String column(String header) {
+        return switch (header.replaceAll("[\\s_-]", "").toLowerCase(Locale.ROOT)) {
+            case "record" -> "record";
+            case "name", "wishname" -> "name";
+            case "description", "wishdescription" -> "description";
+            case "addeddate", "wishaddeddate" -> "addedDate";
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,14 @@
+package wishc1.wishlist.service;
+
+/**
+ * One data row of a wish import as read from the upload, before validation. Columns that are
+ * absent or empty are null.
+ *
+ * @param number      the number of the row, starting at 1 for the first data row
+ * @param record      the record type of an account export row, null in other uploads
+ * @param name        the name of the wish
+ * @param description the description of the wish
+ * @param addedDate   the added date of the wish, as ISO-8601 text
+ */
+record WishImportRow(long number, String record, String name, String description, String addedDate) {
+}
@@ -0,0 +1,214 @@
+package wishc1.wishlist.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import wishc1.wishlist.dto.AccountExportRow;
+import wishc1.wishlist.dto.WishImportError;
+import wishc1.wishlist.dto.WishImportProgress;
+import wishc1.wishlist.model.Wish;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Imports wishes from a CSV or JSON upload. Rows are read one at a time, validated, and saved
+ * through WishService in batches of a fixed size, each batch in its own transaction, so neither
+ * the upload nor the saved wishes accumulate in memory. A batch that fails to save is reported
+ * and the import carries on with the next one. Progress is also reported when a batch worth of
+ * errors is pending or many rows went by without one, and at most MAX_LISTED_ERRORS row errors
+ * are listed per import.
+ */
+@Service
+public class WishImportService {
+
+    static final int MAX_LISTED_ERRORS = 1000;
+    // Rows read without a report, in batches, before a report is sent anyway, e.g. for skipped rows
+    private static final int REPORT_INTERVAL_BATCHES = 10;
+
+    private final WishService wishService;
+    private final int batchSize;
+
+    @Autowired
+    public WishImportService(WishService wishService, @Value("${wishlist.import.batch-size:500}") int batchSize) {
+        this.wishService = wishService;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Import the wishes of an upload. Rows of other record types in an account export, such as
+     * viewer rows, and empty rows are skipped.
+     *
+     * @param in         the upload, UTF-8 encoded
+     * @param format     the format of the upload
+     * @param wishListId the ID of a wishlist to add the wishes to, or null
+     * @param progress   receives a report after every batch, when errors or rows pile up without
+     *                   one, and a final report
+     * @return the final report
+     * @throws IOException if the upload cannot be read
+     */
+    public WishImportProgress importWishes(InputStream in, ExportFormat format, Long wishListId,
+                                           Consumer<WishImportProgress> progress) throws IOException {
+        Run run = new Run(wishListId, progress);
+        BufferedReader text = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try {
+            WishImportReader reader = switch (format) {
+                case JSON -> new JsonWishImportReader(text);
+                case CSV -> new CsvWishImportReader(text);
+            };
+            for (WishImportRow row = reader.next(); row != null; row = reader.next()) {
+                run.add(row);
+            }
+        } catch (IllegalArgumentException e) {
+            // A malformed upload ends the import, the rows read before the error are still saved
+            run.fail(e.getMessage());
+        } catch (JsonProcessingException e) {
+            run.fail(e.getOriginalMessage());
+        }
+        run.saveBatch();
+        WishImportProgress result = run.report(true);
+        progress.accept(result);
+        return result;
+    }
+
+    /**
+     * Check one row, returning the reason it cannot be saved or null if it can.
+     */
+    private static String validate(WishImportRow row) {
+        String name = row.name() != null ? row.name().strip() : "";
+        if (name.isEmpty()) {
+            return "The name is missing";
+        }
+        if (name.length() > Wish.NAME_LENGTH) {
+            return "The name is longer than " + Wish.NAME_LENGTH + " characters";
+        }
+        if (row.description() != null && row.description().length() > Wish.DESCRIPTION_LENGTH) {
+            return "The description is longer than " + Wish.DESCRIPTION_LENGTH + " characters";
+        }
+        if (row.addedDate() != null && parseDate(row.addedDate()) == null) {
+            return "The added date is not an ISO-8601 date: " + row.addedDate();
+        }
+        return null;
+    }
+
+    private static Wish toWish(WishImportRow row) {
+        LocalDateTime addedDate = row.addedDate() != null ? parseDate(row.addedDate()) : null;
+        return new Wish(row.name().strip(), row.description(), addedDate);
+    }
+
+    private static LocalDateTime parseDate(String value) {
+        String text = value.strip();
+        try {
+            return LocalDateTime.parse(text);
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDate.parse(text).atStartOfDay();
+            } catch (DateTimeParseException notADate) {
+                return null;
+            }
+        }
+    }
+
+    private static boolean isSkipped(WishImportRow row) {
+        boolean otherRecord = row.record() != null && !row.record().equals(AccountExportRow.WISH);
+        boolean empty = row.name() == null && row.description() == null && row.addedDate() == null;
+        return otherRecord || empty;
+    }
+
+    /**
+     * State of one import: the counters, the batch being filled and the errors not reported yet.
+     */
+    private class Run {
+
+        private final Long wishListId;
+        private final Consumer<WishImportProgress> progress;
+        private final long startNanos = System.nanoTime();
+        private final List<Wish> batch = new ArrayList<>(batchSize);
+        private final List<Long> batchRows = new ArrayList<>(batchSize);
+        private final List<WishImportError> errors = new ArrayList<>();
+        private long rowsRead;
+        private long imported;
+        private long rejected;
+        private long rowsReported;
+        private int listedErrors;
+
+        Run(Long wishListId, Consumer<WishImportProgress> progress) {
+            this.wishListId = wishListId;
+            this.progress = progress;
+        }
+
+        void add(WishImportRow row) {
+            rowsRead++;
+            if (isSkipped(row)) {
+                return;
+            }
+            String error = validate(row);
+            if (error == null) {
+                batch.add(toWish(row));
+                batchRows.add(row.number());
+            } else {
+                rejected++;
+                addError(row.number(), error);
+            }
+            if (batch.size() == batchSize) {
+                saveBatch();
+                progress.accept(report(false));
+            } else if (errors.size() >= batchSize || rowsRead - rowsReported >= (long) batchSize * REPORT_INTERVAL_BATCHES) {
+                progress.accept(report(false));
+            }
+        }
+
+        void fail(String message) {
+            errors.add(new WishImportError(rowsRead + 1, "The file could not be read: " + message));
+        }
+
+        // Past the limit the rows are only counted as rejected, after one error saying so
+        private void addError(long row, String message) {
+            if (listedErrors < MAX_LISTED_ERRORS) {
+                errors.add(new WishImportError(row, message));
+            } else if (listedErrors == MAX_LISTED_ERRORS) {
+                errors.add(new WishImportError(row, "More rows were rejected, only the first "
+                        + MAX_LISTED_ERRORS + " are listed"));
+            }
+            listedErrors++;
+        }
+
+        void saveBatch() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                wishService.importWishes(batch, wishListId);
+                imported += batch.size();
+            } catch (DataAccessException e) {
+                rejected += batch.size();
+                String message = "Not saved: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                batchRows.forEach(row -> addError(row, message));
+            }
+            batch.clear();
+            batchRows.clear();
+        }
+
+        WishImportProgress report(boolean done) {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            double rowsPerSecond = elapsedNanos > 0 ? rowsRead * 1e9 / elapsedNanos : 0;
+            WishImportProgress report = new WishImportProgress(rowsRead, imported, rejected,
+                    elapsedNanos / 1_000_000, rowsPerSecond, done, List.copyOf(errors));
+            errors.clear();
+            rowsReported = rowsRead;
+            return report;
+        }
+    }
+}
@@ -1,32 +1,64 @@
 package wishc1.wishlist.service;
 
+import io.micrometer.core.annotation.Timed;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.domain.Limit;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import wishc1.wishlist.dto.KeysetPage;
+import wishc1.wishlist.dto.WishListSummary;
 import wishc1.wishlist.model.AppUser;
+import wishc1.wishlist.model.SharedWishListEntry;
 import wishc1.wishlist.model.Wish;
 import wishc1.wishlist.model.WishList;
+import wishc1.wishlist.repository.WishListFetchPlan;
+import wishc1.wishlist.repository.SharedWishListInboxRepository;
 import wishc1.wishlist.repository.WishListRepository;
+import wishc1.wishlist.view.FragmentCache;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@Timed("wishlist.service")
 public class WishListService {
 
     private final WishListRepository wishListRepository;
     private final WishService wishService;
+    private final SharedWishListInboxRepository inboxRepository;
+    private final FragmentCache fragmentCache;
 
     @Autowired
-    public WishListService(WishListRepository wishListRepository, WishService wishService) {
+    public WishListService(WishListRepository wishListRepository, WishService wishService,
+                           SharedWishListInboxRepository inboxRepository, FragmentCache fragmentCache) {
         this.wishListRepository = wishListRepository;
         this.wishService = wishService;
+        this.inboxRepository = inboxRepository;
+        this.fragmentCache = fragmentCache;
+    }
+
+    /**
+     * Fill in the inbox rows of grants made before the inbox existed, or written around it.
+     * Runs in the background once the application has started.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillSharedInbox() {
+        inboxRepository.insertAllMissingEntries();
     }
 
     public WishList createWishList(String eventName, LocalDate eventDate, AppUser owner) {
         WishList wishList = new WishList(eventName, eventDate, owner);
-        return wishListRepository.save(wishList);
+        WishList saved = wishListRepository.save(wishList);
+        fragmentCache.evictOwner(owner.getId());
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -34,43 +66,155 @@ public class WishListService {
         return wishListRepository.findById(id);
     }
 
+    /**
+     * Retrieve a wishlist loading exactly the associations named by the fetch plan.
+     *
+     * @param id   the ID of the wishlist
+     * @param plan the associations the caller is going to use
+     * @return the wishlist, if found
+     */
+    @Transactional(readOnly = true)
+    public Optional<WishList> getWishListById(Long id, WishListFetchPlan plan) {
+        return switch (plan) {
+            case BASIC -> wishListRepository.findById(id);
+            case WITH_WISHES -> wishListRepository.findWithWishesById(id);
+            case WITH_VIEWERS -> wishListRepository.findWithViewersById(id);
+        };
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isSharedWithUser(Long wishListId, Long userId) {
+        return wishListRepository.existsByIdAndViewersId(wishListId, userId);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isOwnedByUser(Long wishListId, Long userId) {
+        return wishListRepository.existsByIdAndOwnerId(wishListId, userId);
+    }
+
     public Optional<WishList> getWishListEventName(String eventName) {
         return wishListRepository.findByEventName(eventName);
     }
 
-    public List<WishList> getWishListsByOwner(AppUser owner) {
-        return wishListRepository.findAll().stream()
-                .filter(wishList -> wishList.getOwner().equals(owner))
-                .toList();
+    /**
+     * Retrieve one page of an owner's wishlists ordered by event date, using keyset pagination
+     * so the cost depends on the page size rather than on the number of wishlists.
+     *
+     * @param ownerId  the ID of the owner
+     * @param after    the cursor returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of wishlists on the page
+     * @return the page of wishlist summaries with the cursor for the next page
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<WishListSummary> getWishListsByOwner(Long ownerId, String after, int pageSize) {
+        // Fetch one extra row to find out whether there is a next page
+        Limit limit = Limit.of(pageSize + 1);
+        List<WishListSummary> rows = null;
+        if (after != null) {
+            // Cursors are "<eventDate>_<id>", with an empty date for an undated wishlist
+            String[] cursor = after.split("_", 2);
+            try {
+                Long id = Long.valueOf(cursor[1]);
+                rows = cursor[0].isEmpty()
+                        ? wishListRepository.findPageByOwnerIdAfterUndated(ownerId, id, limit)
+                        : wishListRepository.findPageByOwnerIdAfter(ownerId, LocalDate.parse(cursor[0]), id, limit);
+            } catch (DateTimeParseException | ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                rows = null; // Unreadable cursor, start over from the first page
+            }
+        }
+        if (rows == null) {
+            rows = wishListRepository.findFirstPageByOwnerId(ownerId, limit);
+        }
+
+        if (rows.size() <= pageSize) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<WishListSummary> content = rows.subList(0, pageSize);
+        WishListSummary last = content.get(pageSize - 1);
+        return new KeysetPage<>(content, (last.getEventDate() != null ? last.getEventDate() : "") + "_" + last.getId());
+    }
+
+    /**
+     * A version of all of an owner's wishlists together, which changes whenever one of them is
+     * created, changed or deleted. Keys the cached wishlist table on the profile page.
+     *
+     * @param ownerId the ID of the owner
+     * @return the version stamp
+     */
+    @Transactional(readOnly = true)
+    public String getWishListsVersion(Long ownerId) {
+        return wishListRepository.findVersionStampByOwnerId(ownerId);
     }
 
     public WishList addWishToWishList(WishList wishList, Wish wish) {
         wishList.addWish(wish);
-        return wishListRepository.save(wishList);
+        WishList saved = wishListRepository.save(wishList);
+        evictFragments(saved);
+        return saved;
     }
     @Transactional
     public WishList saveWishList(WishList wishList) {
-        // Ensure all Wishes in the WishList are saved
-        for (Wish wish : wishList.getWishes()) {
-            if (wish.getId() == null) {  // if Wish is not yet persisted
-                wishService.saveWish(wish);  // persist each Wish
-            }
-        }
-        return wishListRepository.save(wishList);  // now save WishList
+        // Persist the Wishes that are not saved yet in one batch, then the WishList and its join rows
+        List<Wish> newWishes = wishList.getWishes().stream()
+                .filter(wish -> wish.getId() == null)
+                .toList();
+        wishService.saveWishes(newWishes);
+        WishList saved = wishListRepository.save(wishList);
+        evictFragments(saved);
+        return saved;
     }
 
+    @Transactional
     public void shareWishListWithUser(WishList wishList, AppUser user) {
         wishList.addViewer(user);
+        WishList saved = wishListRepository.saveAndFlush(wishList);
+        inboxRepository.insertMissingEntries(List.of(saved.getId()), List.of(user.getId()));
+        evictFragments(saved);
+    }
+
+    /**
+     * Stop sharing a wishlist with a user and drop the wishlist from the user's inbox.
+     *
+     * @param wishList the wishlist, loaded with its viewers
+     * @param user     the user to remove
+     */
+    @Transactional
+    public void unshareWishListWithUser(WishList wishList, AppUser user) {
+        wishList.removeViewer(user);
         wishListRepository.save(wishList);
+        inboxRepository.deleteEntry(wishList.getId(), user.getId());
+        evictFragments(wishList);
     }
-    @Transactional(readOnly = true)
-    public List<WishList> getWishListsSharedWithUser(AppUser user) {
-        return wishListRepository.findByViewersContaining(user);
+
+    /**
+     * Share several wishlists with several users in one transaction, writing only the grants that are new.
+     *
+     * @param wishListIds the ids of the wishlists to share
+     * @param userIds     the ids of the users to share them with
+     * @return the number of grants that did not exist before
+     */
+    @Transactional
+    public int shareWishListsWithUsers(Collection<Long> wishListIds, Collection<Long> userIds) {
+        List<Long> existingWishListIds = wishListRepository.findExistingIds(wishListIds);
+        if (existingWishListIds.isEmpty() || userIds.isEmpty()) {
+            return 0;
+        }
+        int newGrants = wishListRepository.insertMissingViewers(existingWishListIds, userIds);
+        inboxRepository.insertMissingEntries(existingWishListIds, userIds);
+        // The owners' profile fragments are keyed by the wishlist versions, which insertMissingViewers bumped
+        fragmentCache.evictWishLists(existingWishListIds);
+        return newGrants;
     }
 
+    /**
+     * Retrieve the wishlists shared with a user from the denormalized inbox, ordered by event date.
+     *
+     * @param userId the ID of the viewer
+     * @return the inbox entries of the user
+     */
     @Transactional(readOnly = true)
-    public List<WishList> getWishListsByOwner(Long ownerId) {
-        return wishListRepository.findAllByOwnerId(ownerId);
+    public List<SharedWishListEntry> getSharedWishListInbox(Long userId) {
+        return inboxRepository.findByViewerIdOrderByEventDateAscWishListIdAsc(userId);
     }
 
     public List<WishList> getWishListsByIds(List<Long> ids) {
@@ -78,15 +222,24 @@ public class WishListService {
     }
 
     public void removeWishFromWishList(WishList wishList, Wish wish) {
-        wishList.getWishes().remove(wish);  // Remove the wish from the list
+        wishList.removeWish(wish);  // Remove the wish from the list
         wishListRepository.save(wishList);   // Update the wishlist in the database
+        evictFragments(wishList);
     }
 
+    @Transactional
     public void deleteWishListById(Long id) {
+        wishListRepository.findById(id).ifPresent(this::evictFragments);
+        inboxRepository.deleteByWishListId(id);
+        wishListRepository.deleteViewerLinksByWishListId(id);
         wishListRepository.deleteById(id);
     }
 
-
-
-
+    // Drop the rendered fragments showing the wishlist: its own pages and its owner's profile
+    private void evictFragments(WishList wishList) {
+        fragmentCache.evictWishLists(List.of(wishList.getId()));
+        if (wishList.getOwner() != null) {
+            fragmentCache.evictOwner(wishList.getOwner().getId());
+        }
+    }
 }
@@ -0,0 +1,202 @@
+package wishc1.wishlist.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import wishc1.wishlist.dto.WishSearchEntry;
+import wishc1.wishlist.repository.WishRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over wish names and descriptions. Every query term must match a term
+ * of the wish, either whole or as a prefix; matches are ranked by how rare the term is (idf) and
+ * how often it occurs, with name matches counting more than description matches.
+ */
+@Service
+public class WishSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    // A query term that is only the start of a wish term ("bik" for "bike") counts half
+    private static final double PREFIX_MATCH_FACTOR = 0.5;
+
+    private static final Comparator<Map.Entry<Long, Double>> BEST_FIRST =
+            Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+
+    private final WishRepository wishRepository;
+
+    // Term -> (wish id -> weighted number of occurrences), sorted by term for prefix lookups
+    private final ConcurrentSkipListMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+    // Wish id -> the terms it is indexed under, so it can be taken out again
+    private final Map<Long, Set<String>> termsByWish = new ConcurrentHashMap<>();
+
+    @Autowired
+    public WishSearchIndex(WishRepository wishRepository) {
+        this.wishRepository = wishRepository;
+    }
+
+    /**
+     * Build the index from the database once the application has started. Runs in the background,
+     * so results can be incomplete for a moment after startup.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (this) {
+            postings.clear();
+            termsByWish.clear();
+        }
+        try (Stream<WishSearchEntry> entries = wishRepository.streamSearchEntries()) {
+            entries.forEach(entry -> put(entry.getId(), entry.getName(), entry.getDescription()));
+        }
+    }
+
+    /**
+     * Add a wish to the index or replace its indexed text. Inside a transaction the change is
+     * applied once the transaction has committed.
+     *
+     * @param id          the ID of the wish
+     * @param name        the name of the wish
+     * @param description the description of the wish
+     */
+    public void index(Long id, String name, String description) {
+        afterCommit(() -> put(id, name, description));
+    }
+
+    /**
+     * Take wishes out of the index. Inside a transaction the change is applied once the
+     * transaction has committed.
+     *
+     * @param ids the IDs of the wishes
+     */
+    public void remove(Collection<Long> ids) {
+        List<Long> removed = List.copyOf(ids);
+        afterCommit(() -> removed.forEach(this::delete));
+    }
+
+    /**
+     * Find the wishes matching every term of the query, best match first.
+     *
+     * @param query  the search text
+     * @param offset the number of matches to skip
+     * @param limit  the maximum number of wish IDs to return
+     * @return the IDs of the matching wishes in rank order
+     */
+    public List<Long> search(String query, int offset, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(TextAnalyzer.terms(query));
+        if (queryTerms.isEmpty() || limit <= 0 || offset < 0) {
+            return List.of();
+        }
+
+        Map<Long, Double> scores = null;
+        for (String queryTerm : queryTerms) {
+            Map<Long, Double> termScores = score(queryTerm);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                // Keep the wishes that matched every earlier term as well
+                Map<Long, Double> previous = scores;
+                termScores.keySet().retainAll(previous.keySet());
+                termScores.replaceAll((id, score) -> score + previous.get(id));
+                scores = termScores;
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        if (offset >= scores.size()) {
+            return List.of();
+        }
+
+        // Keep only the best offset + limit matches instead of sorting all of them, in a long as the sum may overflow
+        long wanted = (long) offset + limit;
+        PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(BEST_FIRST.reversed());
+        for (Map.Entry<Long, Double> match : scores.entrySet()) {
+            best.add(match);
+            if (best.size() > wanted) {
+                best.poll();
+            }
+        }
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(best);
+        ranked.sort(BEST_FIRST);
+        return ranked.stream().skip(offset).map(Map.Entry::getKey).toList();
+    }
+
+    /**
+     * @return the number of wishes in the index
+     */
+    public int size() {
+        return termsByWish.size();
+    }
+
+    private Map<Long, Double> score(String queryTerm) {
+        Map<Long, Double> scores = new HashMap<>();
+        int wishCount = Math.max(termsByWish.size(), 1);
+        Map<String, Map<Long, Integer>> matches =
+                postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false);
+        for (Map.Entry<String, Map<Long, Integer>> match : matches.entrySet()) {
+            Map<Long, Integer> occurrences = match.getValue();
+            double idf = Math.log(1 + (double) wishCount / Math.max(occurrences.size(), 1));
+            double factor = match.getKey().equals(queryTerm) ? 1 : PREFIX_MATCH_FACTOR;
+            // A wish matching through several terms ("bike" and "bikes") keeps its best one
+            occurrences.forEach((id, weight) -> scores.merge(id, factor * idf * weight, Math::max));
+        }
+        return scores;
+    }
+
+    private synchronized void put(Long id, String name, String description) {
+        delete(id);
+        Map<String, Integer> weights = new HashMap<>();
+        TextAnalyzer.terms(name).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+        TextAnalyzer.terms(description).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+        weights.forEach((term, weight) ->
+                postings.computeIfAbsent(term, t -> new ConcurrentHashMap<>()).put(id, weight));
+        termsByWish.put(id, new HashSet<>(weights.keySet()));
+    }
+
+    private synchronized void delete(Long id) {
+        Set<String> terms = termsByWish.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            postings.computeIfPresent(term, (t, occurrences) -> {
+                occurrences.remove(id);
+                return occurrences.isEmpty() ? null : occurrences;
+            });
+        }
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
@@ -1,44 +1,207 @@
 package wishc1.wishlist.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import wishc1.wishlist.dto.BulkOperationResult;
+import wishc1.wishlist.dto.KeysetPage;
+import wishc1.wishlist.dto.WishSearchResult;
+import wishc1.wishlist.dto.WishUpdate;
 import wishc1.wishlist.model.Wish;
+import wishc1.wishlist.repository.WishListRepository;
 import wishc1.wishlist.repository.WishRepository;
+import wishc1.wishlist.repository.WishSort;
+import wishc1.wishlist.view.FragmentCache;
 
+import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Timed("wishlist.service")
 public class WishService {
 
     private final WishRepository wishRepository;
+    private final WishListRepository wishListRepository;
+    private final WishSearchIndex wishSearchIndex;
+    private final FragmentCache fragmentCache;
 
     @Autowired
-    public WishService(WishRepository wishRepository) {
+    public WishService(WishRepository wishRepository, WishListRepository wishListRepository,
+                       WishSearchIndex wishSearchIndex, FragmentCache fragmentCache) {
         this.wishRepository = wishRepository;
+        this.wishListRepository = wishListRepository;
+        this.wishSearchIndex = wishSearchIndex;
+        this.fragmentCache = fragmentCache;
     }
 
     public List<Wish> getAllWishes() {
         return wishRepository.findAll();
     }
 
+    /**
+     * Retrieve one page of the wish catalog using keyset pagination, so the cost of a page
+     * depends on the page size rather than on the size of the catalog.
+     *
+     * @param sort     the order of the catalog
+     * @param after    the cursor returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of wishes on the page
+     * @return the page of wishes with the cursor for the next page
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Wish> getWishPage(WishSort sort, String after, int pageSize) {
+        // Fetch one extra row to find out whether there is a next page
+        Limit limit = Limit.of(pageSize + 1);
+        List<Wish> rows = null;
+        if (after != null) {
+            // Cursors are "<id>" or "<id>_<sort value>", the value goes last as a name may contain '_'
+            String[] cursor = after.split("_", 2);
+            try {
+                Long id = Long.valueOf(cursor[0]);
+                rows = switch (sort) {
+                    case NAME -> wishRepository.findPageOrderByNameAfter(cursor[1], id, limit);
+                    case ADDED_DATE -> cursor[1].isEmpty()
+                            ? wishRepository.findByAddedDateIsNullAndIdLessThanOrderByIdDesc(id, limit)
+                            : wishRepository.findPageOrderByAddedDateAfter(LocalDateTime.parse(cursor[1]), id, limit);
+                    case ID -> wishRepository.findByIdGreaterThanOrderByIdAsc(id, limit);
+                };
+            } catch (DateTimeParseException | ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                rows = null; // Unreadable cursor, start over from the first page
+            }
+        }
+        if (rows == null) {
+            rows = switch (sort) {
+                case NAME -> wishRepository.findAllByOrderByNameAscIdAsc(limit);
+                case ADDED_DATE -> wishRepository.findAllByOrderByAddedDateDescIdDesc(limit);
+                case ID -> wishRepository.findAllByOrderByIdAsc(limit);
+            };
+        }
+
+        if (rows.size() <= pageSize) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<Wish> content = rows.subList(0, pageSize);
+        return new KeysetPage<>(content, cursor(sort, content.get(pageSize - 1)));
+    }
+
+    private static String cursor(WishSort sort, Wish last) {
+        return switch (sort) {
+            case NAME -> last.getId() + "_" + last.getName();
+            case ADDED_DATE -> last.getId() + "_" + (last.getAddedDate() != null ? last.getAddedDate() : "");
+            case ID -> String.valueOf(last.getId());
+        };
+    }
+
+    /**
+     * Full-text search over wish names and descriptions, ignoring case and accents.
+     *
+     * @param query the search text
+     * @param page  the zero-based page number
+     * @param size  the number of wishes per page
+     * @return one page of matching wishes, best match first
+     */
+    @Transactional(readOnly = true)
+    public WishSearchResult searchWishes(String query, int page, int size) {
+        // A page beyond the largest possible offset is empty, instead of an overflowing offset
+        int offset;
+        try {
+            offset = Math.multiplyExact(page, size);
+        } catch (ArithmeticException e) {
+            return new WishSearchResult(List.of(), page, false);
+        }
+        // Ask for one extra id to find out whether there is a next page
+        List<Long> ids = wishSearchIndex.search(query, offset, size + 1);
+        List<Long> pageIds = ids.subList(0, Math.min(size, ids.size()));
+
+        // Load the page in rank order, a wish deleted since it was ranked is left out
+        Map<Long, Wish> wishesById = wishRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Wish::getId, Function.identity()));
+        List<Wish> wishes = pageIds.stream().map(wishesById::get).filter(Objects::nonNull).toList();
+        return new WishSearchResult(wishes, page, ids.size() > size);
+    }
+
+    @Transactional
     public Wish addWish(Wish wish) {
         wish.setAddedDate(LocalDateTime.now());
-        return wishRepository.save(wish);
+        Wish saved = wishRepository.save(wish);
+        wishSearchIndex.index(saved.getId(), saved.getName(), saved.getDescription());
+        return saved;
     }
 
+    @Transactional
     public void saveWish(Wish wish) {
-        wishRepository.save(wish);
+        // Wishes from the "add" form come without a date, which would put them last in the newest-first catalog
+        if (wish.getAddedDate() == null) {
+            wish.setAddedDate(LocalDateTime.now());
+        }
+        Wish saved = wishRepository.save(wish);
+        wishSearchIndex.index(saved.getId(), saved.getName(), saved.getDescription());
     }
 
+    /**
+     * Save a batch of new wishes in one transaction so the inserts are sent as JDBC batches.
+     *
+     * @param wishes the wishes to save
+     */
+    @Transactional
     public void addWishes(List<Wish> wishes) {
+        LocalDateTime addedDate = LocalDateTime.now();
         for (Wish wish : wishes) {
-            wish.setAddedDate(LocalDateTime.now());
-            wishRepository.save(wish);
+            wish.setAddedDate(addedDate);
+        }
+        saveWishes(wishes);
+    }
+
+    /**
+     * Save a batch of wishes as they are, in one transaction.
+     *
+     * @param wishes the wishes to save
+     */
+    @Transactional
+    public void saveWishes(List<Wish> wishes) {
+        for (Wish saved : wishRepository.saveAll(wishes)) {
+            wishSearchIndex.index(saved.getId(), saved.getName(), saved.getDescription());
         }
     }
 
+    /**
+     * Save one batch of imported wishes in its own transaction, optionally adding them to a
+     * wishlist. Wishes without an added date get the current time. The saved wishes are detached
+     * afterwards: an import streamed to the client runs all its batches in the request's
+     * open-in-view persistence context, which would otherwise keep every wish of the upload and
+     * dirty-check them all again on each flush.
+     *
+     * @param wishes     the new wishes
+     * @param wishListId the ID of the wishlist to add them to, or null
+     */
+    @Transactional
+    public void importWishes(List<Wish> wishes, Long wishListId) {
+        LocalDateTime addedDate = LocalDateTime.now();
+        for (Wish wish : wishes) {
+            if (wish.getAddedDate() == null) {
+                wish.setAddedDate(addedDate);
+            }
+        }
+        saveWishes(wishes);
+        if (wishListId != null) {
+            wishListRepository.insertWishLinks(wishListId, wishes.stream().map(Wish::getId).toList());
+            fragmentCache.evictWishLists(List.of(wishListId));
+        }
+        wishRepository.flushAndClear();
+    }
+
     public Optional<Wish> getWishById(Long id) {
         return wishRepository.findById(id);
     }
@@ -47,20 +210,78 @@ public class WishService {
         return wishRepository.findByName(name);
     }
 
+    @Transactional
     public Wish updateWish(Long id, Wish wishDetails) {
         Wish wish = wishRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Wish not found with id " + id));
 
         wish.setName(wishDetails.getName());
         wish.setDescription(wishDetails.getDescription());
+        // The wishlists showing the wish have changed too
+        fragmentCache.evictWishLists(wishListRepository.touchWishListsContainingWishes(List.of(id)));
+        wishSearchIndex.index(id, wish.getName(), wish.getDescription());
         return wishRepository.save(wish);
     }
 
+    /**
+     * Update name and description of several wishes in one JDBC batch, without loading them.
+     *
+     * @param updates the new values, one per wish
+     * @return the number of updated wishes and the ids that did not exist
+     */
+    @Transactional
+    public BulkOperationResult updateWishes(List<WishUpdate> updates) {
+        if (updates.isEmpty()) {
+            return new BulkOperationResult(0, List.of());
+        }
+        int[] counts = wishRepository.batchUpdateNamesAndDescriptions(updates);
+        fragmentCache.evictWishLists(
+                wishListRepository.touchWishListsContainingWishes(updates.stream().map(WishUpdate::id).toList()));
+
+        int updated = 0;
+        List<Long> missingIds = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            // Some drivers report SUCCESS_NO_INFO for rewritten batches
+            if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                updated++;
+                wishSearchIndex.index(updates.get(i).id(), updates.get(i).name(), updates.get(i).description());
+            } else {
+                missingIds.add(updates.get(i).id());
+            }
+        }
+        return new BulkOperationResult(updated, missingIds);
+    }
+
     public void deleteWish(Long id) {
-        if (wishRepository.existsById(id)) {
-            wishRepository.deleteById(id);
-        } else {
+        if (deleteWishes(List.of(id)).hasMissing()) {
             throw new RuntimeException("Wish not found with id " + id);
         }
     }
+
+    /**
+     * Delete a selection of wishes, and their wishlist links, in a constant number of statements.
+     *
+     * @param ids the ids of the wishes to delete
+     * @return the number of deleted wishes and the ids that did not exist
+     */
+    @Transactional
+    public BulkOperationResult deleteWishes(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new BulkOperationResult(0, List.of());
+        }
+        Set<Long> existingIds = new HashSet<>(wishRepository.findExistingIds(ids));
+        List<Long> missingIds = ids.stream()
+                .distinct()
+                .filter(id -> !existingIds.contains(id))
+                .toList();
+        if (existingIds.isEmpty()) {
+            return new BulkOperationResult(0, missingIds);
+        }
+
+        fragmentCache.evictWishLists(wishListRepository.touchWishListsContainingWishes(existingIds));
+        wishRepository.deleteWishListLinksByWishIds(existingIds);
+        int deleted = wishRepository.deleteAllByIdIn(existingIds);
+        wishSearchIndex.remove(existingIds);
+        return new BulkOperationResult(deleted, missingIds);
+    }
 }
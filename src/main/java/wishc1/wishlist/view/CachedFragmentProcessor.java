@@ -0,0 +1,88 @@
+package wishc1.wishlist.view;
+
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.engine.AttributeName;
+import org.thymeleaf.engine.TemplateModel;
+import org.thymeleaf.exceptions.TemplateProcessingException;
+import org.thymeleaf.inline.NoOpInliner;
+import org.thymeleaf.model.IModel;
+import org.thymeleaf.model.IModelFactory;
+import org.thymeleaf.model.IProcessableElementTag;
+import org.thymeleaf.processor.element.AbstractAttributeModelProcessor;
+import org.thymeleaf.processor.element.IElementModelStructureHandler;
+import org.thymeleaf.standard.expression.StandardExpressions;
+import org.thymeleaf.templatemode.TemplateMode;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Processes wl:cache and wl:cache-version, see FragmentCacheDialect. On a miss the element is
+ * rendered on its own with the current context and stored; on a hit, and after storing, the
+ * element is replaced by the stored HTML.
+ */
+class CachedFragmentProcessor extends AbstractAttributeModelProcessor {
+
+    private static final String ATTRIBUTE = "cache";
+    private static final String VERSION_ATTRIBUTE = "cache-version";
+    private static final int PRECEDENCE = 0;
+
+    private final FragmentCache fragmentCache;
+
+    CachedFragmentProcessor(String dialectPrefix, FragmentCache fragmentCache) {
+        super(TemplateMode.HTML, dialectPrefix, null, false, ATTRIBUTE, true, PRECEDENCE, false);
+        this.fragmentCache = fragmentCache;
+    }
+
+    @Override
+    protected void doProcess(ITemplateContext context, IModel model, AttributeName attributeName,
+                             String attributeValue, IElementModelStructureHandler structureHandler) {
+        IModelFactory modelFactory = context.getModelFactory();
+        IProcessableElementTag tag = (IProcessableElementTag) model.get(0);
+        String versionValue = tag.getAttributeValue(getDialectPrefix(), VERSION_ATTRIBUTE);
+        if (versionValue == null) {
+            throw new TemplateProcessingException("wl:cache needs a wl:cache-version");
+        }
+        // Both go before the element is rendered on its own, which would run this processor again
+        IProcessableElementTag plainTag = modelFactory.removeAttribute(tag, attributeName);
+        model.replace(0, modelFactory.removeAttribute(plainTag, getDialectPrefix(), VERSION_ATTRIBUTE));
+
+        FragmentCache.Key key = new FragmentCache.Key(
+                String.valueOf(evaluate(context, attributeValue)),
+                context.getTemplateData().getTemplate(), tag.getLine(), tag.getCol(),
+                context.getLocale(), String.valueOf(evaluate(context, versionValue)));
+        String html = fragmentCache.get(key);
+        if (html == null) {
+            html = render(context, model);
+            fragmentCache.put(key, html);
+        }
+
+        model.reset();
+        model.add(modelFactory.createText(html));
+        // The HTML is output as it is, text that looks like an inlined expression ([[...]]) stays text
+        structureHandler.setInliner(NoOpInliner.INSTANCE);
+    }
+
+    private static Object evaluate(ITemplateContext context, String expression) {
+        return StandardExpressions.getExpressionParser(context.getConfiguration())
+                .parseExpression(context, expression)
+                .execute(context);
+    }
+
+    // Parse the element's markup again as a template of its own and process it with the current context
+    private static String render(ITemplateContext context, IModel model) {
+        StringWriter source = new StringWriter();
+        StringWriter html = new StringWriter();
+        try {
+            model.write(source);
+        } catch (IOException e) {
+            throw new TemplateProcessingException("Could not write the cached fragment", e);
+        }
+        IProcessableElementTag tag = (IProcessableElementTag) model.get(0);
+        TemplateModel fragment = context.getConfiguration().getTemplateManager().parseString(
+                context.getTemplateData(), source.toString(), tag.getLine(), tag.getCol(),
+                context.getTemplateMode(), false);
+        context.getConfiguration().getTemplateManager().process(fragment, context, html);
+        return html.toString();
+    }
+}
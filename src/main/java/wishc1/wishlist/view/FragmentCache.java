@@ -0,0 +1,118 @@
+package wishc1.wishlist.view;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Rendered HTML of template fragments marked with wl:cache, see FragmentCacheDialect. An entry is
+ * keyed by its group (the entity the fragment shows, e.g. "wishList:7"), the template and position
+ * of the fragment, the locale and a version, so a fragment is rendered again as soon as its entity
+ * changes. Writes evict the groups they touch as well, to free their memory early. The cache is
+ * bounded by the size of the HTML it holds and published as the cache.* metrics of "fragments".
+ */
+@Component
+public class FragmentCache implements MeterBinder {
+
+    // Group prefixes, the templates build the same strings in their wl:cache attributes
+    public static final String WISH_LIST_GROUP = "wishList:";
+    public static final String OWNER_GROUP = "owner:";
+
+    private final Cache<Key, String> cache;
+
+    @Autowired
+    public FragmentCache(@Value("${wishlist.fragment-cache.maximum-size:16MB}") DataSize maximumSize,
+                         @Value("${wishlist.fragment-cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                // Roughly the heap taken by the strings, two bytes per char
+                .weigher((Key key, String html) -> 2 * (html.length() + key.version().length()))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "fragments");
+    }
+
+    String get(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    void put(Key key, String html) {
+        cache.put(key, html);
+    }
+
+    /**
+     * Drop the cached fragments of wishlists, once the current transaction has committed.
+     *
+     * @param wishListIds the IDs of the changed wishlists
+     */
+    public void evictWishLists(Collection<Long> wishListIds) {
+        List<String> groups = wishListIds.stream().map(id -> WISH_LIST_GROUP + id).toList();
+        afterCommit(() -> evictGroups(groups));
+    }
+
+    /**
+     * Drop the cached fragments of a user's own wishlists, once the current transaction has committed.
+     *
+     * @param ownerId the ID of the owner
+     */
+    public void evictOwner(Long ownerId) {
+        List<String> groups = List.of(OWNER_GROUP + ownerId);
+        afterCommit(() -> evictGroups(groups));
+    }
+
+    /**
+     * @return the number of cached fragments
+     */
+    public long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private void evictGroups(Collection<String> groups) {
+        cache.asMap().keySet().removeIf(key -> groups.contains(key.group()));
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+    /**
+     * Identifies one rendering of a fragment.
+     *
+     * @param group    the entity the fragment shows, used for eviction
+     * @param template the template the fragment is in
+     * @param line     the line of the fragment's element in the template
+     * @param col      the column of the fragment's element in the template
+     * @param locale   the locale it was rendered in
+     * @param version  the version of the data it was rendered from
+     */
+    record Key(String group, String template, int line, int col, Locale locale, String version) {
+    }
+}
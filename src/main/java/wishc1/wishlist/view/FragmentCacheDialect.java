@@ -0,0 +1,45 @@
+package wishc1.wishlist.view;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.dialect.AbstractProcessorDialect;
+import org.thymeleaf.processor.IProcessor;
+import org.thymeleaf.standard.processor.StandardXmlNsTagProcessor;
+import org.thymeleaf.templatemode.TemplateMode;
+
+import java.util.Set;
+
+/**
+ * Thymeleaf dialect adding fragment caching to the templates:
+ * <pre>
+ * &lt;div wl:cache="${'wishList:' + wishList.id}" wl:cache-version="${wishList.version}"&gt;...&lt;/div&gt;
+ * </pre>
+ * The element is rendered once per group, version and locale and served from FragmentCache after
+ * that, without evaluating anything inside it. Whatever the fragment shows must therefore be
+ * determined by those three: no per-user or per-request values such as CSRF tokens. Model
+ * variables used only inside a cached fragment can be lazy (LazyContextVariable), so a cache hit
+ * does not load them either. Spring Boot adds the dialect to the template engine.
+ */
+@Component
+public class FragmentCacheDialect extends AbstractProcessorDialect {
+
+    static final String PREFIX = "wl";
+    // Ahead of the Standard Dialect (1000), so a cached element is replaced before th:each, th:if etc. run
+    private static final int PRECEDENCE = 100;
+
+    private final FragmentCache fragmentCache;
+
+    @Autowired
+    public FragmentCacheDialect(FragmentCache fragmentCache) {
+        super("Fragment Cache", PREFIX, PRECEDENCE);
+        this.fragmentCache = fragmentCache;
+    }
+
+    @Override
+    public Set<IProcessor> getProcessors(String dialectPrefix) {
+        return Set.of(
+                new CachedFragmentProcessor(dialectPrefix, fragmentCache),
+                // Removes the xmlns:wl declaration from the output
+                new StandardXmlNsTagProcessor(TemplateMode.HTML, dialectPrefix));
+    }
+}
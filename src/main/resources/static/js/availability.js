@@ -0,0 +1,25 @@
+// Live availability check on the registration form: every input with a "data-availability"
+// attribute asks /register/availability/<field> and shows the "data-taken" text when the value is in use.
+document.querySelectorAll('input[data-availability]').forEach(function (input) {
+    var message = document.getElementById(input.getAttribute('data-availability') + '-availability');
+    var pending = null;
+
+    input.addEventListener('input', function () {
+        var value = input.value.trim();
+
+        clearTimeout(pending);
+        message.textContent = '';
+        if (value.length === 0) {
+            return;
+        }
+        pending = setTimeout(function () {
+            fetch('/register/availability/' + input.getAttribute('data-availability') + '?value=' + encodeURIComponent(value))
+                .then(function (response) { return response.ok ? response.json() : { available: true }; })
+                .then(function (result) {
+                    if (input.value.trim() === value) {
+                        message.textContent = result.available ? '' : input.getAttribute('data-taken');
+                    }
+                });
+        }, 150);
+    });
+});
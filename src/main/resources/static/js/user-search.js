@@ -0,0 +1,32 @@
+// Typeahead for share recipients: suggests usernames from /users/search for the
+// last comma separated entry of every input with the "user-search" class.
+document.querySelectorAll('input.user-search').forEach(function (input) {
+    var datalist = document.getElementById(input.getAttribute('list'));
+    var pending = null;
+
+    input.addEventListener('input', function () {
+        var entries = input.value.split(',');
+        var prefix = entries.pop().trim();
+        var chosen = entries.map(function (entry) { return entry.trim(); }).filter(Boolean);
+
+        clearTimeout(pending);
+        if (prefix.length === 0) {
+            datalist.innerHTML = '';
+            return;
+        }
+        pending = setTimeout(function () {
+            fetch('/users/search?size=10&q=' + encodeURIComponent(prefix))
+                .then(function (response) { return response.ok ? response.json() : { usernames: [] }; })
+                .then(function (result) {
+                    datalist.innerHTML = '';
+                    result.usernames
+                        .filter(function (username) { return chosen.indexOf(username) < 0; })
+                        .forEach(function (username) {
+                            var option = document.createElement('option');
+                            option.value = chosen.concat(username).join(', ');
+                            datalist.appendChild(option);
+                        });
+                });
+        }, 150);
+    });
+});
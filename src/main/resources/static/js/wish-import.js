@@ -0,0 +1,53 @@
+// Posts the import form and renders the newline-delimited progress reports of /wishes/import
+// as they arrive: one line per saved batch, the last one with "done" set.
+var importForm = document.getElementById('wishImportForm');
+if (importForm) {
+    var progressText = document.getElementById('importProgress');
+    var errorList = document.getElementById('importErrors');
+
+    var render = function (report) {
+        progressText.textContent = (report.done ? 'Done: ' : 'Importing: ') + report.rowsRead + ' rows read, '
+            + report.imported + ' wishes saved, ' + report.rejected + ' rows rejected ('
+            + Math.round(report.rowsPerSecond) + ' rows/s)';
+        report.errors.forEach(function (error) {
+            var item = document.createElement('li');
+            item.textContent = 'Row ' + error.row + ': ' + error.message;
+            errorList.appendChild(item);
+        });
+    };
+
+    importForm.addEventListener('submit', function (event) {
+        event.preventDefault();
+        var button = importForm.querySelector('button[type=submit]');
+        button.disabled = true;
+        errorList.textContent = '';
+        progressText.textContent = 'Uploading...';
+
+        fetch(importForm.action, { method: 'POST', body: new FormData(importForm) }).then(function (response) {
+            if (!response.ok) {
+                progressText.textContent = 'The import was refused (' + response.status + ').';
+                button.disabled = false;
+                return;
+            }
+            var reader = response.body.getReader();
+            var decoder = new TextDecoder();
+            var pending = '';
+            var read = function () {
+                return reader.read().then(function (chunk) {
+                    if (chunk.done) {
+                        button.disabled = false;
+                        return;
+                    }
+                    pending += decoder.decode(chunk.value, { stream: true });
+                    var lines = pending.split('\n');
+                    pending = lines.pop();
+                    lines.filter(function (line) { return line; }).forEach(function (line) {
+                        render(JSON.parse(line));
+                    });
+                    return read();
+                });
+            };
+            return read();
+        });
+    });
+}
@@ -0,0 +1,26 @@
+// Wish pickers start with the first page of the catalog. The button with a "data-picker" attribute
+// appends the next page from /wishes/catalog to the select it names, and hides itself after the last page.
+document.querySelectorAll('button[data-picker]').forEach(function (button) {
+    var select = document.getElementById(button.getAttribute('data-picker'));
+
+    button.addEventListener('click', function () {
+        var after = select.getAttribute('data-next');
+        if (!after) {
+            return;
+        }
+        button.disabled = true;
+        fetch('/wishes/catalog?sort=NAME&after=' + encodeURIComponent(after))
+            .then(function (response) { return response.ok ? response.json() : { content: [], nextCursor: after }; })
+            .then(function (page) {
+                page.content.forEach(function (wish) {
+                    var option = document.createElement('option');
+                    option.value = wish.id;
+                    option.textContent = wish.name;
+                    select.appendChild(option);
+                });
+                select.setAttribute('data-next', page.nextCursor || '');
+                button.disabled = false;
+                button.hidden = !page.nextCursor;
+            });
+    });
+});
@@ -0,0 +1,120 @@
+package wishc1.wishlist.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class StaticResourceConfigTest {
+
+    private static final Pattern HASHED_STYLESHEET = Pattern.compile("/css/style-[0-9a-f]{32}\\.css");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void templates_ShouldLinkContentHashedAssets() throws Exception {
+        // Act
+        String page = mockMvc.perform(get("/login"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Assert
+        assertTrue(HASHED_STYLESHEET.matcher(page).find(), page);
+        assertFalse(page.contains("\"/css/style.css\""));
+    }
+
+    @Test
+    void hashedAsset_ShouldBeCacheableForGoodWithoutTouchingTheSession() throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(get(hashedStylesheet()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Assert
+        MockHttpServletResponse response = result.getResponse();
+        assertEquals("max-age=31536000, public, immutable", response.getHeader("Cache-Control"));
+        assertTrue(response.getContentAsString().contains("body"));
+        assertNull(result.getRequest().getSession(false));
+    }
+
+    @Test
+    void plainAsset_ShouldBeRevalidated() throws Exception {
+        // Act
+        MockHttpServletResponse response = mockMvc.perform(get("/css/style.css"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // Assert
+        assertEquals("no-cache", response.getHeader("Cache-Control"));
+        assertTrue(response.getContentAsString().contains("body"));
+    }
+
+    @Test
+    void plainAssetWithADashInItsName_ShouldBeRevalidated() throws Exception {
+        mockMvc.perform(get("/js/user-search.js"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"));
+    }
+
+    @Test
+    void hashedAsset_ShouldBeSentGzippedToClientsAcceptingGzip() throws Exception {
+        assertPrecompressed("gzip", "gzip");
+    }
+
+    @Test
+    void hashedAsset_ShouldBeSentAsBrotliToClientsAcceptingIt() throws Exception {
+        assertPrecompressed("br, gzip", "br");
+    }
+
+    @Test
+    void plainAsset_ShouldBeSentPrecompressedAndRevalidated() throws Exception {
+        // Act
+        MockHttpServletResponse response = mockMvc.perform(get("/css/style.css").header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // Assert
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("no-cache", response.getHeader("Cache-Control"));
+    }
+
+    private void assertPrecompressed(String acceptEncoding, String contentEncoding) throws Exception {
+        // Arrange
+        String stylesheet = hashedStylesheet();
+        byte[] plain = mockMvc.perform(get(stylesheet)).andReturn().getResponse().getContentAsByteArray();
+
+        // Act
+        MockHttpServletResponse response = mockMvc.perform(get(stylesheet).header("Accept-Encoding", acceptEncoding))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // Assert
+        assertEquals(contentEncoding, response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertEquals("max-age=31536000, public, immutable", response.getHeader("Cache-Control"));
+        assertTrue(response.getContentAsByteArray().length < plain.length);
+    }
+
+    private String hashedStylesheet() throws Exception {
+        String page = mockMvc.perform(get("/login")).andReturn().getResponse().getContentAsString();
+        Matcher stylesheet = HASHED_STYLESHEET.matcher(page);
+        assertTrue(stylesheet.find());
+        return stylesheet.group();
+    }
+}
@@ -1,5 +1,6 @@
 package wishc1.wishlist.controller;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -17,10 +18,12 @@ import wishc1.wishlist.config.PasswordConfig;
 import wishc1.wishlist.config.SecurityConfig;
 import wishc1.wishlist.exception.UserAlreadyExistsException;
 import wishc1.wishlist.model.AppUser;
+import wishc1.wishlist.monitoring.SqlStatementCounter;
 import wishc1.wishlist.repository.AppUserRepository;
 import wishc1.wishlist.security.CustomUserDetails;
 import wishc1.wishlist.security.CustomUserDetailsService;
 import wishc1.wishlist.service.AppUserService;
+import wishc1.wishlist.view.FragmentCache;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -30,7 +33,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(AuthController.class)
-@Import({SecurityConfig.class, PasswordConfig.class})
+@Import({SecurityConfig.class, PasswordConfig.class, FragmentCache.class,
+        SqlStatementCounter.class, SimpleMeterRegistry.class})
 public class AuthControllerTest {
 
     @Autowired
@@ -117,7 +121,7 @@ public class AuthControllerTest {
     @Test
     @DisplayName("Displays email error on duplicate email during registration")
     void registerUser_withDuplicateEmail_showsEmailError() throws Exception {
-        doThrow(new UserAlreadyExistsException("Email is already registered"))
+        doThrow(new UserAlreadyExistsException("email", "Email is already registered"))
                 .when(appUserService).saveUser(any(AppUser.class));
 
         AppUser appUser = new AppUser("duplicate@example.com", "password123", "username");
@@ -133,7 +137,23 @@ public class AuthControllerTest {
     @Test
     @DisplayName("Displays username error on duplicate username during registration")
     void registerUser_withDuplicateUsername_showsUsernameError() throws Exception {
-        doThrow(new UserAlreadyExistsException("Username is already taken"))
+        doThrow(new UserAlreadyExistsException("username", "Username is already taken"))
+                .when(appUserService).saveUser(any(AppUser.class));
+
+        AppUser appUser = new AppUser("user@example.com", "password123", "duplicateuser");
+
+        mockMvc.perform(post("/register")
+                        .flashAttr("appUser", appUser)
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(view().name("register"))
+                .andExpect(model().attributeHasFieldErrorCode("appUser", "username", "error.appUser"));
+    }
+
+    @Test
+    @DisplayName("Displays the error on the field named by the exception, whatever the message language")
+    void registerUser_withDuplicateUsernameInDanish_showsUsernameError() throws Exception {
+        doThrow(new UserAlreadyExistsException("username", "Brugernavnet er allerede taget."))
                 .when(appUserService).saveUser(any(AppUser.class));
 
         AppUser appUser = new AppUser("user@example.com", "password123", "duplicateuser");
@@ -160,8 +180,6 @@ public class AuthControllerTest {
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.isAuthenticated()).thenReturn(true);
         when(authentication.getPrincipal()).thenReturn(customUserDetails);
-        AppUser appUser = new AppUser("test@example.com", "password123", "username");
-        when(customUserDetails.getAppUser()).thenReturn(appUser);
 
         mockMvc.perform(get("/profile"))
                 .andExpect(status().is3xxRedirection())
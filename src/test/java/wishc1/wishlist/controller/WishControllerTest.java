@@ -7,12 +7,18 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.ui.Model;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import wishc1.wishlist.dto.BulkOperationResult;
+import wishc1.wishlist.dto.KeysetPage;
+import wishc1.wishlist.dto.ReadyWish;
+import wishc1.wishlist.dto.WishOption;
+import wishc1.wishlist.dto.WishSearchResult;
+import wishc1.wishlist.dto.WishUpdate;
 import wishc1.wishlist.model.Wish;
+import wishc1.wishlist.repository.WishSort;
 import wishc1.wishlist.service.WishService;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
@@ -54,6 +60,19 @@ class WishControllerTest {
         verify(redirectAttributes).addFlashAttribute("success", "New wish added to available items.");
     }
 
+    @Test
+    void searchWishes_ShouldShowOnePageOfMatches() {
+        List<Wish> matches = List.of(new Wish("Bike", "Red", null));
+        when(wishService.searchWishes("bike", 1, 100)).thenReturn(new WishSearchResult(matches, 1, true));
+
+        String viewName = wishController.searchWishes("bike", 1, 500, model);
+
+        assertEquals("list-wishes", viewName);
+        verify(model).addAttribute("wishes", matches);
+        verify(model).addAttribute("q", "bike");
+        verify(model).addAttribute("hasNext", true);
+    }
+
     @Test
     void showAddWishForm_ShouldReturnAddWishView() {
         String viewName = wishController.showAddWishForm(model);
@@ -64,19 +83,19 @@ class WishControllerTest {
 
     @Test
     void addWishToReadyList_ShouldAddWishToReadyListAndRedirect() {
-        Wish wish = new Wish();
-        List<Wish> readyWishes = new ArrayList<>();
+        Wish wish = new Wish("Bike", "A red bike", null);
+        List<ReadyWish> readyWishes = new ArrayList<>();
 
         String viewName = wishController.addWishToReadyList(wish, readyWishes, redirectAttributes);
 
         assertEquals("redirect:/wishes/ready", viewName);
-        assertEquals(1, readyWishes.size());
+        assertEquals(List.of(new ReadyWish("Bike", "A red bike", null)), readyWishes);
         verify(redirectAttributes).addFlashAttribute("success", "Wish added to ready list.");
     }
 
     @Test
     void viewReadyWishes_ShouldReturnReadyWishesView() {
-        List<Wish> readyWishes = new ArrayList<>();
+        List<ReadyWish> readyWishes = new ArrayList<>();
 
         String viewName = wishController.viewReadyWishes(readyWishes, model);
 
@@ -86,39 +105,53 @@ class WishControllerTest {
 
     @Test
     void finalizeReadyWishes_ShouldAddReadyWishesToDatabaseAndClearList() {
-        List<Wish> readyWishes = new ArrayList<>();
-        readyWishes.add(new Wish());
+        List<ReadyWish> readyWishes = new ArrayList<>();
+        readyWishes.add(new ReadyWish("Bike", "A red bike", null));
 
         String viewName = wishController.finalizeReadyWishes(readyWishes, redirectAttributes);
 
         assertEquals("redirect:/wishes", viewName);
         assertEquals(0, readyWishes.size());  // List should be cleared after saving
-        verify(wishService).addWishes(readyWishes);
+        verify(wishService).addWishes(argThat(wishes -> wishes.size() == 1 && "Bike".equals(wishes.get(0).getName())));
         verify(redirectAttributes).addFlashAttribute("success", "All ready wishes have been saved.");
     }
 
     @Test
     void listWishes_ShouldReturnListWishesView() {
         List<Wish> wishes = new ArrayList<>();
-        when(wishService.getAllWishes()).thenReturn(wishes);
+        when(wishService.getWishPage(WishSort.ADDED_DATE, "7_2024-12-01T10:00", 50)).thenReturn(new KeysetPage<>(wishes, "3_"));
 
-        String viewName = wishController.listWishes(model);
+        String viewName = wishController.listWishes(WishSort.ADDED_DATE, "7_2024-12-01T10:00", model);
 
         assertEquals("list-wishes", viewName);
         verify(model).addAttribute("wishes", wishes);
+        verify(model).addAttribute("nextCursor", "3_");
+        verify(model).addAttribute("sort", WishSort.ADDED_DATE);
     }
 
     @Test
     void showEditWishesPage_ShouldReturnEditWishView() {
         List<Wish> wishes = new ArrayList<>();
-        when(wishService.getAllWishes()).thenReturn(wishes);
+        when(wishService.getWishPage(WishSort.NAME, null, 50)).thenReturn(new KeysetPage<>(wishes, null));
 
-        String viewName = wishController.showEditWishesPage(model);
+        String viewName = wishController.showEditWishesPage(WishSort.NAME, null, model);
 
         assertEquals("edit-wish", viewName);
         verify(model).addAttribute("wishes", wishes);
     }
 
+    @Test
+    void wishCatalog_ShouldReturnIdsAndNamesWithTheNextCursor() {
+        Wish bike = new Wish("Bike", "Red", null);
+        bike.setId(4L);
+        when(wishService.getWishPage(WishSort.NAME, "3_Ball", 50)).thenReturn(new KeysetPage<>(List.of(bike), "4_Bike"));
+
+        KeysetPage<WishOption> page = wishController.wishCatalog(WishSort.NAME, "3_Ball");
+
+        assertEquals(List.of(new WishOption(4L, "Bike")), page.content());
+        assertEquals("4_Bike", page.nextCursor());
+    }
+
     @Test
     void updateWish_ShouldRedirectToWishesAfterUpdate() {
         Long wishId = 1L;
@@ -134,25 +167,42 @@ class WishControllerTest {
     @Test
     void deleteSelectedWishes_ShouldRedirectToEditPageAfterDeletion() {
         List<Long> selectedWishes = List.of(1L, 2L);
+        when(wishService.deleteWishes(selectedWishes)).thenReturn(new BulkOperationResult(2, List.of()));
 
-        String viewName = wishController.deleteSelectedWishes(selectedWishes);
+        String viewName = wishController.deleteSelectedWishes(selectedWishes, redirectAttributes);
 
         assertEquals("redirect:/wishes/edit", viewName);
-        verify(wishService, times(2)).deleteWish(anyLong());
+        verify(wishService).deleteWishes(selectedWishes);
+        verify(wishService, never()).deleteWish(anyLong());
+        verify(redirectAttributes).addFlashAttribute("success", "2 wish(es) deleted.");
     }
 
     @Test
-    void updateSelectedWishes_ShouldRedirectToEditPageAfterUpdating() {
+    void deleteSelectedWishes_ShouldReportMissingIds() {
         List<Long> selectedWishes = List.of(1L, 2L);
-        List<String> names = List.of("Wish 1", "Wish 2");
-        List<String> descriptions = List.of("Description 1", "Description 2");
+        when(wishService.deleteWishes(selectedWishes)).thenReturn(new BulkOperationResult(1, List.of(2L)));
+
+        wishController.deleteSelectedWishes(selectedWishes, redirectAttributes);
 
-        when(wishService.getWishById(1L)).thenReturn(Optional.of(new Wish()));
-        when(wishService.getWishById(2L)).thenReturn(Optional.of(new Wish()));
+        verify(redirectAttributes).addFlashAttribute("error", "Wishes not found: [2]");
+    }
+
+    @Test
+    void updateSelectedWishes_ShouldRedirectToEditPageAfterUpdating() {
+        List<Long> selectedWishes = List.of(1L, 3L);
+        List<Long> wishIds = List.of(1L, 2L, 3L);
+        List<String> names = List.of("Wish 1", "Wish 2", "Wish 3");
+        List<String> descriptions = List.of("Description 1", "Description 2", "Description 3");
+        List<WishUpdate> expectedUpdates = List.of(
+                new WishUpdate(1L, "Wish 1", "Description 1"),
+                new WishUpdate(3L, "Wish 3", "Description 3"));
+        when(wishService.updateWishes(expectedUpdates)).thenReturn(new BulkOperationResult(2, List.of()));
 
-        String viewName = wishController.updateSelectedWishes(selectedWishes, names, descriptions);
+        String viewName = wishController.updateSelectedWishes(selectedWishes, wishIds, names, descriptions, redirectAttributes);
 
         assertEquals("redirect:/wishes/edit", viewName);
-        verify(wishService, times(2)).saveWish(any(Wish.class));
+        verify(wishService).updateWishes(expectedUpdates);
+        verify(wishService, never()).getWishById(anyLong());
+        verify(redirectAttributes).addFlashAttribute("success", "2 wish(es) updated.");
     }
 }
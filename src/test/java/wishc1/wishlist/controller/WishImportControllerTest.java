@@ -0,0 +1,92 @@
+package wishc1.wishlist.controller;
+
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.http.Cookie;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import wishc1.wishlist.model.AppUser;
+import wishc1.wishlist.service.AppUserService;
+import wishc1.wishlist.service.WishService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Imports through the streaming endpoint, where open-in-view keeps one persistence context for
+ * all the batches of an upload.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = "wishlist.import.batch-size=2")
+@AutoConfigureMockMvc
+class WishImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AppUserService appUserService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @SpyBean
+    private WishService wishService;
+
+    private Cookie session;
+
+    @BeforeEach
+    void logIn() throws Exception {
+        String name = "i" + UUID.randomUUID().toString().substring(0, 8);
+        AppUser user = appUserService.saveUser(new AppUser(name + "@example.com", "password123", name));
+        session = mockMvc.perform(formLogin("/login").user(user.getEmail()).password("password123"))
+                .andReturn().getResponse().getCookie("SESSION");
+    }
+
+    @Test
+    void importWishes_ShouldLeaveThePersistenceContextEmptyAfterEachBatch() throws Exception {
+        // Arrange
+        List<Integer> managedAfterBatch = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            invocation.callRealMethod();
+            managedAfterBatch.add(entityManager.unwrap(SessionImplementor.class)
+                    .getPersistenceContextInternal().getNumberOfManagedEntities());
+            return null;
+        }).when(wishService).importWishes(anyList(), any());
+        String csv = "name,description\n" + "Wish,Imported\n".repeat(5);
+        MockMultipartFile file = new MockMultipartFile("file", "wishes.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        MvcResult started = mockMvc.perform(multipart("/wishes/import").file(file).cookie(session))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Assert
+        assertEquals(List.of(0, 0, 0), managedAfterBatch);
+        assertTrue(body.contains("\"imported\":5"));
+    }
+}
@@ -0,0 +1,144 @@
+package wishc1.wishlist.controller;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import wishc1.wishlist.model.AppUser;
+import wishc1.wishlist.model.Wish;
+import wishc1.wishlist.model.WishList;
+import wishc1.wishlist.monitoring.SqlStatements;
+import wishc1.wishlist.service.AppUserService;
+import wishc1.wishlist.service.WishListService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements the wishlist pages run against H2, so a change that loads
+ * something per wishlist, wish or viewer (N+1) fails here.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class WishListControllerQueryCountTest {
+
+    /** Spring Session looks the session up twice per request, once more when it is committed. */
+    private static final int SESSION_LOOKUPS = 2;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AppUserService appUserService;
+
+    @Autowired
+    private WishListService wishListService;
+
+    private AppUser owner;
+    private Cookie session;
+
+    @BeforeEach
+    void logIn() throws Exception {
+        owner = register();
+        session = mockMvc.perform(formLogin("/login").user(owner.getEmail()).password("password123"))
+                .andReturn().getResponse().getCookie("SESSION");
+    }
+
+    @Test
+    void profile_ShouldRunAsManyStatementsForManyWishlistsAsForOne() throws Exception {
+        // Arrange
+        createWishList(1, List.of());
+        int oneWishList = SqlStatements.statements(mockMvc.perform(get("/wishlists/profile").cookie(session))
+                .andExpect(status().isOk())
+                .andReturn()).total();
+        List<AppUser> viewers = List.of(register(), register());
+        for (int i = 0; i < 5; i++) {
+            createWishList(3, viewers);
+        }
+
+        // Act & Assert
+        mockMvc.perform(get("/wishlists/profile").cookie(session))
+                .andExpect(status().isOk())
+                .andExpect(SqlStatements.count(oneWishList))
+                .andExpect(SqlStatements.repeatedAtMost(SESSION_LOOKUPS));
+    }
+
+    @Test
+    void profile_ShouldSkipTheWishlistQueriesWhenTheFragmentsAreCached() throws Exception {
+        // Arrange
+        createWishList(2, List.of(register()));
+        int firstView = SqlStatements.statements(mockMvc.perform(get("/wishlists/profile").cookie(session))
+                .andReturn()).total();
+
+        // Act & Assert
+        mockMvc.perform(get("/wishlists/profile").cookie(session))
+                .andExpect(status().isOk())
+                .andExpect(SqlStatements.atMost(firstView - 1));
+    }
+
+    @Test
+    void wishlistWishes_ShouldRunAsManyStatementsForManyWishesAsForOne() throws Exception {
+        // Arrange
+        WishList small = createWishList(1, List.of());
+        WishList large = createWishList(10, List.of(register(), register(), register()));
+        int oneWish = SqlStatements.statements(mockMvc.perform(get("/wishlists/{id}/wishes", small.getId()).cookie(session))
+                .andExpect(status().isOk())
+                .andReturn()).total();
+
+        // Act & Assert
+        mockMvc.perform(get("/wishlists/{id}/wishes", large.getId()).cookie(session))
+                .andExpect(status().isOk())
+                .andExpect(SqlStatements.count(oneWish))
+                .andExpect(SqlStatements.repeatedAtMost(SESSION_LOOKUPS));
+    }
+
+    @Test
+    void shareSelected_ShouldNotRunStatementsPerWishlistOrRecipient() throws Exception {
+        // Arrange
+        List<String> wishListIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            wishListIds.add(createWishList(1, List.of()).getId().toString());
+        }
+        List<String> recipients = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            recipients.add(register().getUsername());
+        }
+
+        // Act & Assert
+        mockMvc.perform(post("/wishlists/shareSelected").cookie(session)
+                        .param("wishListIds", wishListIds.toArray(String[]::new))
+                        .param("recipientUsernames", recipients.toArray(String[]::new)))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(SqlStatements.repeatedAtMost(SESSION_LOOKUPS));
+        assertEquals(4, wishListService.getSharedWishListInbox(
+                appUserService.getUsersByUsernames(List.of(recipients.get(0))).get(0).getId()).size());
+    }
+
+    private AppUser register() {
+        String name = "q" + UUID.randomUUID().toString().substring(0, 8);
+        return appUserService.saveUser(new AppUser(name + "@example.com", "password123", name));
+    }
+
+    private WishList createWishList(int wishes, List<AppUser> viewers) {
+        WishList wishList = new WishList("Event", LocalDate.of(2024, 12, 24), owner);
+        for (int i = 0; i < wishes; i++) {
+            wishList.addWish(new Wish("Wish " + i, "Description " + i, LocalDateTime.now()));
+        }
+        viewers.forEach(wishList::addViewer);
+        return wishListService.saveWishList(wishList);
+    }
+}
@@ -6,15 +6,24 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.ui.ConcurrentModel;
 import org.springframework.ui.Model;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.thymeleaf.context.LazyContextVariable;
+import wishc1.wishlist.dto.KeysetPage;
+import wishc1.wishlist.dto.ReadyWish;
+import wishc1.wishlist.dto.WishListSummary;
 import wishc1.wishlist.model.AppUser;
 import wishc1.wishlist.model.Wish;
 import wishc1.wishlist.model.WishList;
+import wishc1.wishlist.repository.WishListFetchPlan;
 import wishc1.wishlist.security.CustomUserDetails;
 import wishc1.wishlist.service.AppUserService;
 import wishc1.wishlist.service.WishListService;
@@ -25,6 +34,8 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -77,13 +88,17 @@ class WishListControllerTest {
         CustomUserDetails userDetails = new CustomUserDetails(user);
 
         WishList wishList = new WishList();
-        when(session.getAttribute("readyWishes")).thenReturn(new ArrayList<Wish>());
+        when(session.getAttribute("readyWishes")).thenReturn(new ArrayList<>(List.of(new ReadyWish("Bike", "A red bike", null))));
+        when(appUserService.getUserReference(1L)).thenReturn(user);
         Authentication auth = mock(Authentication.class);
+        when(auth.isAuthenticated()).thenReturn(true);
         when(auth.getPrincipal()).thenReturn(userDetails);
 
         String viewName = wishListController.createWishList(wishList, auth, redirectAttributes, session);
 
         assertEquals("redirect:/profile", viewName);
+        assertSame(user, wishList.getOwner());
+        assertEquals("Bike", wishList.getWishes().get(0).getName());
         verify(wishListService).saveWishList(wishList);
         verify(session).removeAttribute("readyWishes");
         verify(redirectAttributes).addFlashAttribute("success", "Wishlist created successfully.");
@@ -95,7 +110,7 @@ class WishListControllerTest {
         Long wishId = 2L;
         WishList wishList = new WishList();
         Wish wish = new Wish();
-        when(wishListService.getWishListById(wishlistId)).thenReturn(Optional.of(wishList));
+        when(wishListService.getWishListById(wishlistId, WishListFetchPlan.WITH_WISHES)).thenReturn(Optional.of(wishList));
         when(wishService.getWishById(wishId)).thenReturn(Optional.of(wish));
 
         String viewName = wishListController.addWishToWishList(wishlistId, wishId, redirectAttributes);
@@ -109,7 +124,7 @@ class WishListControllerTest {
     void addWishToWishList_ShouldRedirectToProfileWithError_WhenWishOrWishlistNotFound() {
         Long wishlistId = 1L;
         Long wishId = 2L;
-        when(wishListService.getWishListById(wishlistId)).thenReturn(Optional.empty());
+        when(wishListService.getWishListById(wishlistId, WishListFetchPlan.WITH_WISHES)).thenReturn(Optional.empty());
 
         String viewName = wishListController.addWishToWishList(wishlistId, wishId, redirectAttributes);
 
@@ -122,15 +137,65 @@ class WishListControllerTest {
     void viewSharedWishList_ShouldReturnViewSharedWishlist_WhenUserAuthorized() {
         Long wishlistId = 1L;
         AppUser user = new AppUser();
+        user.setId(3L);
         WishList wishList = new WishList();
-        wishList.getViewers().add(user);
+        wishList.setId(wishlistId);
         when(appUserService.getLoggedInUser()).thenReturn(user);
-        when(wishListService.getWishListById(wishlistId)).thenReturn(Optional.of(wishList));
+        when(wishListService.isSharedWithUser(wishlistId, 3L)).thenReturn(true);
+        when(wishListService.getWishListById(wishlistId, WishListFetchPlan.BASIC)).thenReturn(Optional.of(wishList));
 
-        String viewName = wishListController.viewSharedWishList(wishlistId, model, mock(Authentication.class));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String viewName = wishListController.viewSharedWishList(wishlistId, model, mock(Authentication.class),
+                new ServletWebRequest(new MockHttpServletRequest("GET", "/wishlists/shared/1/view"), response));
 
         assertEquals("view-shared-wishlist", viewName);
         verify(model).addAttribute("wishList", wishList);
+        // The wishes are only loaded when the page renders them, not from a cached fragment
+        verify(model).addAttribute(eq("wishes"), any(LazyContextVariable.class));
+        verify(wishListService, never()).getWishListById(wishlistId, WishListFetchPlan.WITH_WISHES);
+    }
+
+    @Test
+    void viewSharedWishList_ShouldAnswerNotModified_WhenETagMatchesVersion() {
+        AppUser user = new AppUser();
+        user.setId(3L);
+        WishList wishList = new WishList();
+        wishList.setId(1L);
+        when(appUserService.getLoggedInUser()).thenReturn(user);
+        when(wishListService.isSharedWithUser(1L, 3L)).thenReturn(true);
+        when(wishListService.getWishListById(1L, WishListFetchPlan.BASIC)).thenReturn(Optional.of(wishList));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/wishlists/shared/1/view");
+        request.addHeader("If-None-Match", "\"1-0-viewer\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        String viewName = wishListController.viewSharedWishList(1L, model, mock(Authentication.class),
+                new ServletWebRequest(request, response));
+
+        assertNull(viewName);
+        assertEquals(304, response.getStatus());
+        verify(wishListService, never()).getWishListById(1L, WishListFetchPlan.WITH_WISHES);
+    }
+
+    @Test
+    void showWishesInWishlist_ShouldSendETagPerOwnerView_WhenClientCopyIsStale() {
+        AppUser owner = new AppUser();
+        owner.setId(1L);
+        WishList wishList = new WishList();
+        wishList.setId(7L);
+        wishList.setOwner(owner);
+        when(wishListService.getWishListById(7L, WishListFetchPlan.BASIC)).thenReturn(Optional.of(wishList));
+        Authentication auth = mock(Authentication.class);
+        when(auth.getPrincipal()).thenReturn(new CustomUserDetails(owner));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/wishlists/7/wishes");
+        request.addHeader("If-None-Match", "\"7-0-viewer\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        String viewName = wishListController.showWishesInWishlist(7L, model, auth, new ServletWebRequest(request, response));
+
+        assertEquals("wishlist-wishes", viewName);
+        assertEquals("\"7-0-owner\"", response.getHeader("ETag"));
+        assertEquals("no-cache, private", response.getHeader("Cache-Control"));
+        verify(model).addAttribute("isOwner", true);
     }
 
     @Test
@@ -139,7 +204,7 @@ class WishListControllerTest {
         Long wishId = 2L;
         WishList wishList = new WishList();
         Wish wish = new Wish();
-        when(wishListService.getWishListById(wishlistId)).thenReturn(Optional.of(wishList));
+        when(wishListService.getWishListById(wishlistId, WishListFetchPlan.WITH_WISHES)).thenReturn(Optional.of(wishList));
         when(wishService.getWishById(wishId)).thenReturn(Optional.of(wish));
 
         String viewName = wishListController.removeWishFromWishList(wishlistId, wishId, redirectAttributes);
@@ -153,7 +218,7 @@ class WishListControllerTest {
     void removeWishFromWishList_ShouldRedirectToWishlistWishesWithError_WhenWishOrWishlistNotFound() {
         Long wishlistId = 1L;
         Long wishId = 2L;
-        when(wishListService.getWishListById(wishlistId)).thenReturn(Optional.empty());
+        when(wishListService.getWishListById(wishlistId, WishListFetchPlan.WITH_WISHES)).thenReturn(Optional.empty());
 
         String viewName = wishListController.removeWishFromWishList(wishlistId, wishId, redirectAttributes);
 
@@ -177,15 +242,58 @@ class WishListControllerTest {
         List<Long> wishListIds = List.of(1L);
         List<String> recipientUsernames = List.of("user1", "user2");
         AppUser user1 = new AppUser();
+        user1.setId(11L);
         AppUser user2 = new AppUser();
-        WishList wishList = new WishList();
+        user2.setId(12L);
         when(appUserService.getUsersByUsernames(recipientUsernames)).thenReturn(List.of(user1, user2));
-        when(wishListService.getWishListsByIds(wishListIds)).thenReturn(List.of(wishList));
+        when(wishListService.shareWishListsWithUsers(wishListIds, List.of(11L, 12L))).thenReturn(2);
 
         String viewName = wishListController.shareWishlists(wishListIds, recipientUsernames, redirectAttributes);
 
         assertEquals("redirect:/wishlists/profile", viewName);
-        verify(wishListService, times(2)).shareWishListWithUser(eq(wishList), any(AppUser.class));
-        verify(redirectAttributes).addFlashAttribute("success", "Wishlist(s) shared successfully.");
+        verify(wishListService).shareWishListsWithUsers(wishListIds, List.of(11L, 12L));
+        verify(wishListService, never()).shareWishListWithUser(any(WishList.class), any(AppUser.class));
+        verify(redirectAttributes).addFlashAttribute("success", "Wishlist(s) shared successfully. New shares: 2.");
+    }
+
+    @Test
+    void userProfile_ShouldAddOnePageOfOwnedWishlistsAndNextCursor() {
+        AppUser user = new AppUser("owner@example.com", "password123", "owner");
+        user.setId(1L);
+        Authentication auth = mock(Authentication.class);
+        when(auth.isAuthenticated()).thenReturn(true);
+        when(auth.getPrincipal()).thenReturn(new CustomUserDetails(user));
+        List<WishListSummary> ownedLists = List.of(mock(WishListSummary.class));
+        when(wishListService.getWishListsByOwner(1L, "2024-12-24_5", 20))
+                .thenReturn(new KeysetPage<>(ownedLists, "2024-12-31_9"));
+        when(wishListService.getWishListsVersion(1L)).thenReturn("3-7-12");
+        ConcurrentModel model = new ConcurrentModel();
+
+        String viewName = wishListController.userProfile("2024-12-24_5", model, auth);
+
+        assertEquals("profile", viewName);
+        assertEquals("3-7-12:2024-12-24_5", model.getAttribute("wishListsVersion"));
+        assertEquals(ownedLists, ((LazyContextVariable<?>) model.getAttribute("wishLists")).getValue());
+        assertEquals("2024-12-31_9", ((LazyContextVariable<?>) model.getAttribute("nextCursor")).getValue());
+        // Both come from the same page, loaded once
+        verify(wishListService, times(1)).getWishListsByOwner(1L, "2024-12-24_5", 20);
+    }
+
+    @Test
+    void unshareWishList_ShouldRemoveViewer_WhenOwnerRequests() {
+        AppUser owner = new AppUser("owner@example.com", "password123", "owner");
+        owner.setId(1L);
+        AppUser viewer = new AppUser("viewer@example.com", "password123", "viewer");
+        WishList wishList = new WishList();
+        wishList.setOwner(owner);
+        Authentication auth = mock(Authentication.class);
+        when(auth.getPrincipal()).thenReturn(new CustomUserDetails(owner));
+        when(wishListService.getWishListById(3L, WishListFetchPlan.WITH_VIEWERS)).thenReturn(Optional.of(wishList));
+        when(appUserService.getUsersByUsernames(List.of("viewer"))).thenReturn(List.of(viewer));
+
+        String viewName = wishListController.unshareWishList(3L, "viewer", redirectAttributes, auth);
+
+        assertEquals("redirect:/wishlists/3/share", viewName);
+        verify(wishListService).unshareWishListWithUser(wishList, viewer);
     }
 }
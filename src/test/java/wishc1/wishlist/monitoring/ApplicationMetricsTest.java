@@ -0,0 +1,58 @@
+package wishc1.wishlist.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import wishc1.wishlist.service.AppUserService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class ApplicationMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void browsing_ShouldBeRecordedPerServiceMethodAndEndpoint() throws Exception {
+        // Arrange
+        mockMvc.perform(post("/register")
+                        .param("email", "metrics@example.com")
+                        .param("password", "password123")
+                        .param("username", "metrics"))
+                .andExpect(status().is3xxRedirection());
+        Cookie session = mockMvc.perform(formLogin("/login").user("metrics@example.com").password("password123"))
+                .andReturn().getResponse().getCookie("SESSION");
+
+        // Act
+        mockMvc.perform(get("/wishlists/profile").cookie(session))
+                .andExpect(status().isOk());
+
+        // Assert
+        assertEquals(1, meterRegistry.get("wishlist.service")
+                .tag("class", AppUserService.class.getName())
+                .tag("method", "saveUser")
+                .timer().count());
+        assertTrue(meterRegistry.get("http.server.requests")
+                .tag("uri", "/wishlists/profile")
+                .timer().count() >= 1);
+        assertTrue(meterRegistry.get("wishlist.sessions")
+                .tag("state", "authenticated")
+                .gauge().value() >= 1);
+        assertTrue(meterRegistry.get("hibernate.query.executions").functionCounter().count() > 0);
+    }
+}
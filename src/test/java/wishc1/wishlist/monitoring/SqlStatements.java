@@ -0,0 +1,55 @@
+package wishc1.wishlist.monitoring;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MockMvc assertions on the SQL statements a request ran, counted by SqlStatementBudgetFilter.
+ * Needs the application's filters, e.g. a @SpringBootTest with @AutoConfigureMockMvc:
+ * <pre>
+ * mockMvc.perform(get("/wishlists/profile").cookie(session))
+ *         .andExpect(SqlStatements.count(4))
+ *         .andExpect(SqlStatements.repeatedAtMost(1));
+ * </pre>
+ */
+public final class SqlStatements {
+
+    private SqlStatements() {
+    }
+
+    /**
+     * @param expected the exact number of statements the request may run
+     */
+    public static ResultMatcher count(int expected) {
+        return result -> assertEquals(expected, statements(result).total(),
+                () -> "SQL statements " + statements(result).countBySql());
+    }
+
+    /**
+     * @param max the largest number of statements the request may run
+     */
+    public static ResultMatcher atMost(int max) {
+        return result -> assertTrue(statements(result).total() <= max,
+                () -> "more than " + max + " SQL statements " + statements(result).countBySql());
+    }
+
+    /**
+     * @param max how often the same SQL text may run; a query run once per row of an earlier
+     *            result (N+1) runs as often as there are rows
+     */
+    public static ResultMatcher repeatedAtMost(int max) {
+        return result -> assertTrue(statements(result).mostRepeated() <= max,
+                () -> "SQL statements repeated more than " + max + " times " + statements(result).countBySql());
+    }
+
+    /**
+     * @return the statements counted for the request
+     */
+    public static SqlStatementCounter.Statements statements(MvcResult result) {
+        Object statements = result.getRequest().getAttribute(SqlStatementBudgetFilter.STATEMENTS_ATTRIBUTE);
+        assertNotNull(statements, "no SQL statements counted, is SqlStatementBudgetFilter in the filter chain?");
+        return (SqlStatementCounter.Statements) statements;
+    }
+}
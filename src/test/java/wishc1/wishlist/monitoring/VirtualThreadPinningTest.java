@@ -0,0 +1,85 @@
+package wishc1.wishlist.monitoring;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = {"spring.threads.virtual.enabled=true", "wishlist.virtual-threads.pinned-threshold=0ms"})
+@AutoConfigureMockMvc
+class VirtualThreadPinningTest {
+
+    private static final int USERS = 32;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private VirtualThreadPinningMonitor pinningMonitor;
+
+    @Autowired
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @Test
+    void asyncWork_ShouldRunOnVirtualThreads() throws Exception {
+        assertTrue(applicationTaskExecutor.submit(() -> Thread.currentThread().isVirtual()).get());
+    }
+
+    @Test
+    void requests_ShouldNotPinVirtualThreadsInApplicationCode() throws Exception {
+        // Act: register, log in and browse concurrently, each user on its own virtual thread
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> sessions = new ArrayList<>();
+            for (int i = 0; i < USERS; i++) {
+                String name = "pinning" + i;
+                sessions.add(users.submit(() -> {
+                    browse(name);
+                    return null;
+                }));
+            }
+            for (Future<?> session : sessions) {
+                session.get();
+            }
+        }
+
+        // Assert: the recording stream delivers events shortly after they happen
+        Thread.sleep(1_500);
+        List<String> applicationFrames = pinningMonitor.pinnedFrames().keySet().stream()
+                .filter(frame -> frame.startsWith("wishc1.wishlist."))
+                .toList();
+        assertEquals(List.of(), applicationFrames, "virtual threads pinned in " + pinningMonitor.pinnedFrames());
+    }
+
+    private void browse(String name) throws Exception {
+        mockMvc.perform(get("/register/availability/username").param("value", name))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/register")
+                        .param("email", name + "@example.com")
+                        .param("password", "password123")
+                        .param("username", name))
+                .andExpect(status().is3xxRedirection());
+        Cookie session = mockMvc.perform(formLogin("/login").user(name + "@example.com").password("password123"))
+                .andReturn().getResponse().getCookie("SESSION");
+        mockMvc.perform(get("/wishlists/profile").cookie(session))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/users/search").param("q", "pin").cookie(session))
+                .andExpect(status().isOk());
+    }
+}
@@ -6,8 +6,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.ActiveProfiles;
+import wishc1.wishlist.dto.UserDirectoryEntry;
 import wishc1.wishlist.model.AppUser;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -83,5 +85,19 @@ class AppUserRepositoryTest {
         // Assert
         assertFalse(exists, "existsByUsername should return false when username does not exist");
     }
-}
 
+    @Test
+    void findDirectoryEntriesAfter_shouldReturnTheUsersWithAHigherIdInIdOrder() {
+        // Arrange
+        AppUser second = appUserRepository.save(new AppUser("second@example.com", "testPassword123", "second"));
+        AppUser third = appUserRepository.save(new AppUser("third@example.com", "testPassword123", "third"));
+
+        // Act
+        List<UserDirectoryEntry> entries = appUserRepository.findDirectoryEntriesAfter(testUser.getId());
+
+        // Assert
+        assertEquals(List.of(second.getId(), third.getId()), entries.stream().map(UserDirectoryEntry::getId).toList());
+        assertEquals("second@example.com", entries.get(0).getEmail());
+        assertEquals(third.getId(), appUserRepository.findMaxId());
+    }
+}
@@ -0,0 +1,42 @@
+package wishc1.wishlist.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import wishc1.wishlist.model.Wish;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(WishIdSequenceGuard.class)
+class WishIdSequenceGuardTest {
+
+    @Autowired
+    private WishIdSequenceGuard sequenceGuard;
+
+    @Autowired
+    private WishRepository wishRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void alignWithExistingIds_ShouldMoveNewIdsAboveTheRowsWrittenBeforeTheSequence() {
+        // Arrange: rows saved with IDENTITY ids while the sequence still starts at 1
+        jdbcTemplate.update("insert into wishes (id, name) values (?, ?)", 5000L, "Legacy wish");
+        jdbcTemplate.execute("alter sequence " + WishIdSequenceGuard.SEQUENCE + " restart with 1");
+
+        // Act
+        sequenceGuard.alignWithExistingIds();
+        Wish saved = wishRepository.saveAndFlush(new Wish("New wish", null, null));
+
+        // Assert
+        assertTrue(saved.getId() > 5000L, "id " + saved.getId() + " collides with the legacy rows");
+    }
+}
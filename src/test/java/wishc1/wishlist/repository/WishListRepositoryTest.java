@@ -0,0 +1,85 @@
+package wishc1.wishlist.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import wishc1.wishlist.dto.WishListSummary;
+import wishc1.wishlist.model.AppUser;
+import wishc1.wishlist.model.WishList;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class WishListRepositoryTest {
+
+    @Autowired
+    private WishListRepository wishListRepository;
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    private AppUser owner;
+
+    private AppUser otherUser;
+
+    @BeforeEach
+    void setUp() {
+        owner = appUserRepository.save(new AppUser("owner@example.com", "ownerPassword123", "owner"));
+        otherUser = appUserRepository.save(new AppUser("other@example.com", "otherPassword123", "other"));
+
+        wishListRepository.save(new WishList("Christmas", LocalDate.of(2024, 12, 24), owner));
+        wishListRepository.save(new WishList("Birthday", LocalDate.of(2024, 6, 1), owner));
+        wishListRepository.save(new WishList("Wedding", LocalDate.of(2024, 6, 1), owner));
+        wishListRepository.save(new WishList("Other's list", LocalDate.of(2024, 1, 1), otherUser));
+    }
+
+    @Test
+    void findFirstPageByOwnerId_shouldReturnOnlyOwnersListsInEventDateOrder() {
+        // Act
+        List<WishListSummary> page = wishListRepository.findFirstPageByOwnerId(owner.getId(), Limit.of(2));
+
+        // Assert
+        assertEquals(List.of("Birthday", "Wedding"), page.stream().map(WishListSummary::getEventName).toList());
+    }
+
+    @Test
+    void findPageByOwnerIdAfter_shouldContinueAfterTheLastSeenRow() {
+        // Arrange
+        List<WishListSummary> firstPage = wishListRepository.findFirstPageByOwnerId(owner.getId(), Limit.of(2));
+        WishListSummary last = firstPage.get(firstPage.size() - 1);
+
+        // Act
+        List<WishListSummary> nextPage = wishListRepository.findPageByOwnerIdAfter(
+                owner.getId(), last.getEventDate(), last.getId(), Limit.of(2));
+
+        // Assert
+        assertEquals(List.of("Christmas"), nextPage.stream().map(WishListSummary::getEventName).toList());
+    }
+
+    @Test
+    void insertMissingViewers_shouldOnlyInsertGrantsThatDoNotExistYet() {
+        // Arrange
+        List<Long> ownerListIds = wishListRepository.findAllByOwnerId(owner.getId()).stream()
+                .map(WishList::getId)
+                .toList();
+        int firstRun = wishListRepository.insertMissingViewers(List.of(ownerListIds.get(0)), List.of(otherUser.getId()));
+
+        // Act
+        int secondRun = wishListRepository.insertMissingViewers(ownerListIds, List.of(otherUser.getId(), owner.getId()));
+
+        // Assert
+        assertEquals(1, firstRun);
+        assertEquals(5, secondRun);
+        assertTrue(ownerListIds.stream().allMatch(id -> wishListRepository.existsByIdAndViewersId(id, otherUser.getId())));
+        assertTrue(ownerListIds.stream().allMatch(id -> wishListRepository.existsByIdAndViewersId(id, owner.getId())));
+    }
+}
@@ -0,0 +1,98 @@
+package wishc1.wishlist.security;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import wishc1.wishlist.model.AppUser;
+import wishc1.wishlist.model.Wish;
+import wishc1.wishlist.repository.AppUserRepository;
+import wishc1.wishlist.repository.WishRepository;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class JdbcSessionStoreTest {
+
+    private static final String ATTRIBUTE_BYTES = "select a.ATTRIBUTE_BYTES from SPRING_SESSION_ATTRIBUTES a "
+            + "join SPRING_SESSION s on s.PRIMARY_ID = a.SESSION_PRIMARY_ID "
+            + "where s.SESSION_ID = ? and a.ATTRIBUTE_NAME = ?";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private WishRepository wishRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void login_ShouldStoreSlimPrincipalInJdbcSession() throws Exception {
+        // Arrange
+        AppUser user = appUserRepository.save(
+                new AppUser("session@example.com", passwordEncoder.encode("password123"), "session"));
+
+        // Act
+        Cookie sessionCookie = mockMvc.perform(formLogin("/login").user("session@example.com").password("password123"))
+                .andExpect(authenticated())
+                .andReturn().getResponse().getCookie("SESSION");
+
+        // Assert
+        assertNotNull(sessionCookie);
+        String securityContext = storedAttribute(sessionCookie, "SPRING_SECURITY_CONTEXT");
+        assertFalse(securityContext.contains(AppUser.class.getName()), "the session must not hold the AppUser entity");
+        assertFalse(securityContext.contains(user.getPassword()), "the session must not hold the password hash");
+
+        // A request that only brings the cookie is authenticated from the stored session, not redirected to login
+        mockMvc.perform(get("/wishlists/profile").cookie(sessionCookie))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void addReadyWish_ShouldStoreDraftsAsValuesInJdbcSession() throws Exception {
+        // Arrange
+        appUserRepository.save(new AppUser("drafts@example.com", passwordEncoder.encode("password123"), "drafts"));
+        Wish wish = wishRepository.save(new Wish("Bike", "A red bike", null));
+        Cookie sessionCookie = mockMvc.perform(formLogin("/login").user("drafts@example.com").password("password123"))
+                .andReturn().getResponse().getCookie("SESSION");
+
+        // Act
+        mockMvc.perform(post("/wishlists/addReadyWish").param("wishId", wish.getId().toString()).cookie(sessionCookie))
+                .andExpect(status().is3xxRedirection());
+
+        // Assert
+        String readyWishes = storedAttribute(sessionCookie, "readyWishes");
+        assertTrue(readyWishes.contains("Bike"));
+        assertFalse(readyWishes.contains(Wish.class.getName() + "\u0000"), "the session must not hold Wish entities");
+        assertFalse(readyWishes.contains("wishc1.wishlist.model."), "the session must not hold entities");
+    }
+
+    private String storedAttribute(Cookie sessionCookie, String attributeName) {
+        // The cookie carries the Base64 encoded session id
+        String sessionId = new String(java.util.Base64.getDecoder().decode(sessionCookie.getValue()), StandardCharsets.UTF_8);
+        byte[] bytes = jdbcTemplate.queryForObject(ATTRIBUTE_BYTES, byte[].class, sessionId, attributeName);
+        assertNotNull(bytes, attributeName + " is not in the session store");
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,44 @@
+package wishc1.wishlist.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import wishc1.wishlist.model.AppUser;
+import wishc1.wishlist.repository.AppUserRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "wishlist.password.bcrypt-strength=5")
+@AutoConfigureMockMvc
+class PasswordRehashOnLoginTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Test
+    void login_ShouldRehashPasswordMadeWithALowerWorkFactor() throws Exception {
+        // Arrange
+        String weakHash = new BCryptPasswordEncoder(4).encode("password123");
+        appUserRepository.save(new AppUser("rehash@example.com", weakHash, "rehash"));
+
+        // Act
+        mockMvc.perform(formLogin("/login").user("rehash@example.com").password("password123"))
+                .andExpect(authenticated());
+
+        // Assert
+        String storedHash = appUserRepository.findByEmail("rehash@example.com").orElseThrow().getPassword();
+        assertTrue(storedHash.startsWith("$2a$05$"), storedHash);
+        mockMvc.perform(formLogin("/login").user("rehash@example.com").password("password123"))
+                .andExpect(authenticated());
+    }
+}
@@ -0,0 +1,149 @@
+package wishc1.wishlist.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import wishc1.wishlist.model.AppUser;
+import wishc1.wishlist.model.Wish;
+import wishc1.wishlist.model.WishList;
+import wishc1.wishlist.repository.AppUserRepository;
+import wishc1.wishlist.repository.WishListRepository;
+import wishc1.wishlist.repository.WishRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AccountExportService.class)
+class AccountExportServiceTest {
+
+    @Autowired
+    private AccountExportService accountExportService;
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private WishRepository wishRepository;
+
+    @Autowired
+    private WishListRepository wishListRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private AppUser owner;
+    private Long christmasId;
+
+    @BeforeEach
+    void setUp() {
+        owner = appUserRepository.save(new AppUser("owner@example.com", "ownerPassword123", "owner"));
+        AppUser viewer = appUserRepository.save(new AppUser("viewer@example.com", "viewerPassword123", "viewer"));
+        AppUser other = appUserRepository.save(new AppUser("other@example.com", "otherPassword123", "other"));
+
+        Wish bike = wishRepository.save(new Wish("Bike", "Red, \"fast\"\nwith bell", LocalDateTime.of(2024, 11, 1, 9, 30)));
+        Wish book = wishRepository.save(new Wish("Book", null, null));
+
+        WishList christmas = new WishList("Christmas", LocalDate.of(2024, 12, 24), owner);
+        christmas.addWish(bike);
+        christmas.addWish(book);
+        christmas.addViewer(viewer);
+        christmasId = wishListRepository.save(christmas).getId();
+        wishListRepository.save(new WishList("Birthday", LocalDate.of(2025, 3, 1), owner));
+
+        WishList othersList = new WishList("Not mine", LocalDate.of(2025, 1, 1), other);
+        othersList.addWish(book);
+        wishListRepository.save(othersList);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void export_Csv_ShouldWriteOneRowPerWishEmptyListAndViewer() throws Exception {
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = accountExportService.export(owner.getId(), ExportFormat.CSV, out);
+
+        // Assert
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertEquals(4, rows);
+        assertTrue(csv.startsWith("record,wishListId,eventName,eventDate,wishId,wishName,wishDescription,wishAddedDate,viewerUsername\r\n"));
+        assertTrue(csv.contains(",Christmas,2024-12-24,"));
+        assertTrue(csv.contains(",Bike,\"Red, \"\"fast\"\"\nwith bell\",2024-11-01T09:30,\r\n"));
+        assertTrue(csv.contains(",Book,,,\r\n"));
+        assertTrue(csv.contains("wish,") && csv.contains(",Birthday,2025-03-01,,,,,\r\n"));
+        assertTrue(csv.endsWith("viewer," + christmasId + ",Christmas,2024-12-24,,,,,viewer\r\n"));
+        assertFalse(csv.contains("Not mine"));
+    }
+
+    @Test
+    void export_Csv_ShouldKeepSpreadsheetsFromRunningFieldsAsFormulas() throws Exception {
+        // Arrange
+        AppUser attacker = appUserRepository.save(new AppUser("attacker@example.com", "attackerPassword123", "@SUM(1+1)"));
+        WishList birthday = wishListRepository.findAllByOwnerId(owner.getId()).stream()
+                .filter(wishList -> wishList.getEventName().equals("Birthday"))
+                .map(wishList -> wishListRepository.findWithViewersById(wishList.getId()).orElseThrow())
+                .findFirst().orElseThrow();
+        birthday.addWish(wishRepository.save(new Wish("=HYPERLINK(\"http://example.com\")", "-1+2", null)));
+        birthday.addViewer(attacker);
+        wishListRepository.save(birthday);
+        entityManager.flush();
+
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        accountExportService.export(owner.getId(), ExportFormat.CSV, out);
+
+        // Assert
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertTrue(csv.contains(",\"'=HYPERLINK(\"\"http://example.com\"\")\",\"'-1+2\",,\r\n"));
+        assertTrue(csv.endsWith(",,,,,\"'@SUM(1+1)\"\r\n"));
+    }
+
+    @Test
+    void export_Json_ShouldWriteTheSameRowsAsAnArray() throws Exception {
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        accountExportService.export(owner.getId(), ExportFormat.JSON, out);
+
+        // Assert
+        JsonNode rows = new ObjectMapper().readTree(out.toByteArray());
+        assertEquals(4, rows.size());
+        List<String> records = rows.findValuesAsText("record");
+        assertEquals(List.of("wish", "wish", "wish", "viewer"), records);
+        JsonNode bike = rows.get(0);
+        assertEquals(christmasId.longValue(), bike.get("wishListId").asLong());
+        assertEquals("Red, \"fast\"\nwith bell", bike.get("wishDescription").asText());
+        assertEquals("2024-11-01T09:30", bike.get("wishAddedDate").asText());
+        assertFalse(bike.has("viewerUsername"));
+        assertEquals("viewer", rows.get(3).get("viewerUsername").asText());
+    }
+
+    @Test
+    void export_ShouldWriteAnEmptyDocumentForAUserWithoutWishLists() throws Exception {
+        // Arrange
+        AppUser newcomer = appUserRepository.save(new AppUser("new@example.com", "newPassword123", "newcomer"));
+
+        // Act
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        long rows = accountExportService.export(newcomer.getId(), ExportFormat.JSON, json);
+
+        // Assert
+        assertEquals(0, rows);
+        assertEquals("[]", json.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,98 @@
+package wishc1.wishlist.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import wishc1.wishlist.exception.UserAlreadyExistsException;
+import wishc1.wishlist.model.AppUser;
+import wishc1.wishlist.repository.AppUserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Registers the same username or email from many threads at once; the unique constraints must let
+ * exactly one registration through and report every other one as a duplicate of the right field.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = "wishlist.password.bcrypt-strength=4")
+class AppUserRegistrationConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private AppUserService appUserService;
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @AfterEach
+    void tearDown() {
+        appUserRepository.deleteAll();
+    }
+
+    @Test
+    void saveUser_SameUsernameFromManyThreads_ShouldRegisterExactlyOnce() throws Exception {
+        List<Object> results = registerConcurrently(i -> new AppUser("racer" + i + "@example.com", "password123", "racer"));
+
+        assertOneRegisteredAndRestDuplicates(results, "username");
+        assertEquals(1, appUserRepository.findAllByUsernameIn(List.of("racer")).size());
+    }
+
+    @Test
+    void saveUser_SameEmailFromManyThreads_ShouldRegisterExactlyOnce() throws Exception {
+        List<Object> results = registerConcurrently(i -> new AppUser("same@example.com", "password123", "racer" + i));
+
+        assertOneRegisteredAndRestDuplicates(results, "email");
+        assertTrue(appUserRepository.findByEmail("same@example.com").isPresent());
+    }
+
+    private List<Object> registerConcurrently(IntFunction<AppUser> newUser) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                AppUser user = newUser.apply(i);
+                Callable<Object> registration = () -> {
+                    start.await();
+                    try {
+                        return appUserService.saveUser(user);
+                    } catch (UserAlreadyExistsException e) {
+                        return e;
+                    }
+                };
+                futures.add(executor.submit(registration));
+            }
+            start.countDown();
+
+            List<Object> results = new ArrayList<>();
+            for (Future<Object> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertOneRegisteredAndRestDuplicates(List<Object> results, String field) {
+        assertEquals(1, results.stream().filter(AppUser.class::isInstance).count());
+        List<UserAlreadyExistsException> duplicates = results.stream()
+                .filter(UserAlreadyExistsException.class::isInstance)
+                .map(UserAlreadyExistsException.class::cast)
+                .toList();
+        assertEquals(THREADS - 1, duplicates.size());
+        assertTrue(duplicates.stream().allMatch(e -> field.equals(e.getField())));
+    }
+}
@@ -7,11 +7,22 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.hibernate.exception.ConstraintViolationException;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.MessageSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import wishc1.wishlist.exception.UserAlreadyExistsException;
 import wishc1.wishlist.model.AppUser;
 import wishc1.wishlist.repository.AppUserRepository;
+import wishc1.wishlist.security.CustomUserDetails;
+import wishc1.wishlist.security.UserDetailsCache;
 
+import java.sql.SQLException;
+import java.util.List;
 import java.util.Optional;
 
 class AppUserServiceTest {
@@ -22,6 +33,18 @@ class AppUserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private UserDirectoryIndex userDirectoryIndex;
+
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private MessageSource messageSource;
+
+    @Mock
+    private UserAvailabilityFilter userAvailabilityFilter;
+
     @InjectMocks
     private AppUserService appUserService;
 
@@ -36,12 +59,17 @@ class AppUserServiceTest {
         String encodedPassword = "encodedpassword";
 
         when(passwordEncoder.encode("plainpassword")).thenReturn(encodedPassword);
-        when(appUserRepository.save(any(AppUser.class))).thenReturn(user);
+        when(appUserRepository.saveAndFlush(any(AppUser.class))).thenReturn(user);
 
         AppUser savedUser = appUserService.saveUser(user);
 
         assertEquals(encodedPassword, savedUser.getPassword());
-        verify(appUserRepository, times(1)).save(user);
+        verify(appUserRepository, times(1)).saveAndFlush(user);
+        verify(appUserRepository, never()).existsByEmail(any());
+        verify(appUserRepository, never()).existsByUsername(any());
+        verify(userDirectoryIndex).add("testuser", "test@example.com");
+        verify(userAvailabilityFilter).add("testuser", "test@example.com");
+        verify(userDetailsCache).removeUserFromCache("test@example.com");
     }
 
     @Test
@@ -54,4 +82,62 @@ class AppUserServiceTest {
         assertTrue(foundUser.isPresent());
         assertEquals("test@example.com", foundUser.get().getEmail());
     }
+
+    @Test
+    void testGetLoggedInUser_ResolvedByIdFromCachedPrincipal() {
+        AppUser user = new AppUser("test@example.com", "encodedpassword", "testuser");
+        user.setId(1L);
+        when(userDetailsCache.getUserFromCache("test@example.com")).thenReturn(new CustomUserDetails(user));
+        when(appUserRepository.findById(1L)).thenReturn(Optional.of(user));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                User.withUsername("test@example.com").password("encodedpassword").build(), null, List.of()));
+
+        try {
+            assertSame(user, appUserService.getLoggedInUser());
+            verify(appUserRepository, never()).findByEmail(any());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void testGetLoggedInUser_SessionPrincipalResolvedById() {
+        AppUser user = new AppUser("test@example.com", "encodedpassword", "testuser");
+        user.setId(1L);
+        when(appUserRepository.findById(1L)).thenReturn(Optional.of(user));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(new CustomUserDetails(user), null, List.of()));
+
+        try {
+            assertSame(user, appUserService.getLoggedInUser());
+            verify(appUserRepository, never()).findByEmail(any());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void testSaveUser_UsernameConstraintViolationMapsToUsernameField() {
+        AppUser user = new AppUser("test@example.com", "plainpassword", "testuser");
+        when(passwordEncoder.encode("plainpassword")).thenReturn("encodedpassword");
+        when(messageSource.getMessage(eq("error.username.in.use"), any(), any())).thenReturn("Username is already taken.");
+        when(appUserRepository.saveAndFlush(any(AppUser.class))).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException(), "PUBLIC.UK_APP_USER_USERNAME_INDEX_3")));
+
+        UserAlreadyExistsException e = assertThrows(UserAlreadyExistsException.class, () -> appUserService.saveUser(user));
+
+        assertEquals("username", e.getField());
+        assertEquals("Username is already taken.", e.getMessage());
+        assertEquals("plainpassword", user.getPassword());
+        verify(userDirectoryIndex, never()).add(any(), any());
+    }
+
+    @Test
+    void testSaveUser_OtherConstraintViolationIsRethrown() {
+        AppUser user = new AppUser("test@example.com", "plainpassword", "testuser");
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("value too long");
+        when(appUserRepository.saveAndFlush(any(AppUser.class))).thenThrow(violation);
+
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class, () -> appUserService.saveUser(user)));
+    }
 }
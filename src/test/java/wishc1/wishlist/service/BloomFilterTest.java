@@ -0,0 +1,51 @@
+package wishc1.wishlist.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_shouldNeverMissAnAddedValue() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+
+        // Act & Assert
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i + "@example.com"));
+        }
+    }
+
+    @Test
+    void mightContain_shouldKeepFalsePositivesNearTheConfiguredRate() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i);
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("someone-else" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Assert
+        assertTrue(falsePositives < 2_000, "false positive rate too high: " + falsePositives + " of 100000");
+    }
+
+    @Test
+    void constructor_shouldSizeForTheExpectedInsertions() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+
+        // About 9.6 bits and 7 hashes per value for a 1% rate
+        assertTrue(filter.bitCount() >= 9_585 && filter.bitCount() < 9_585 + Long.SIZE);
+        assertEquals(7, filter.hashCount());
+    }
+}
@@ -8,11 +8,15 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import wishc1.wishlist.model.AppUser;
+import wishc1.wishlist.security.CustomUserDetails;
 import wishc1.wishlist.security.CustomUserDetailsService;
+import wishc1.wishlist.security.UserDetailsCache;
 
+import java.time.Duration;
 import java.util.Optional;
 
 class CustomUserDetailsServiceTest {
@@ -20,6 +24,9 @@ class CustomUserDetailsServiceTest {
     @Mock
     private AppUserService appUserService;
 
+    @Spy
+    private UserDetailsCache userDetailsCache = new UserDetailsCache(100, Duration.ofMinutes(10));
+
     @InjectMocks
     private CustomUserDetailsService customUserDetailsService;
 
@@ -47,5 +54,41 @@ class CustomUserDetailsServiceTest {
                 customUserDetailsService.loadUserByUsername("nonexistent@example.com")
         );
     }
-}
 
+    @Test
+    void testLoadUserByUsername_SecondLoginServedFromCache() {
+        AppUser user = new AppUser("test@example.com", "encodedpassword", "testuser");
+        when(appUserService.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+        customUserDetailsService.loadUserByUsername("test@example.com");
+        UserDetails userDetails = customUserDetailsService.loadUserByUsername("test@example.com");
+
+        assertEquals("encodedpassword", userDetails.getPassword());
+        verify(appUserService, times(1)).findByEmail("test@example.com");
+    }
+
+    @Test
+    void testLoadUserByUsername_ReloadedAfterInvalidation() {
+        AppUser user = new AppUser("test@example.com", "encodedpassword", "testuser");
+        when(appUserService.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+        customUserDetailsService.loadUserByUsername("test@example.com");
+        userDetailsCache.removeUserFromCache("test@example.com");
+        customUserDetailsService.loadUserByUsername("test@example.com");
+
+        verify(appUserService, times(2)).findByEmail("test@example.com");
+    }
+
+    @Test
+    void testUpdatePassword_StoresAndCachesNewHash() {
+        AppUser user = new AppUser("test@example.com", "oldhash", "testuser");
+        AppUser rehashed = new AppUser("test@example.com", "newhash", "testuser");
+        when(appUserService.updatePasswordHash("test@example.com", "newhash")).thenReturn(rehashed);
+
+        UserDetails updated = customUserDetailsService.updatePassword(new CustomUserDetails(user), "newhash");
+
+        assertEquals("newhash", updated.getPassword());
+        assertEquals("newhash", customUserDetailsService.loadUserByUsername("test@example.com").getPassword());
+        verify(appUserService, never()).findByEmail(any());
+    }
+}
@@ -0,0 +1,168 @@
+package wishc1.wishlist.service;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import wishc1.wishlist.dto.WishUpdate;
+import wishc1.wishlist.model.AppUser;
+import wishc1.wishlist.model.Wish;
+import wishc1.wishlist.model.WishList;
+import wishc1.wishlist.repository.AppUserRepository;
+import wishc1.wishlist.repository.WishListRepository;
+import wishc1.wishlist.repository.WishRepository;
+import wishc1.wishlist.view.FragmentCache;
+
+import javax.cache.Caching;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({WishService.class, WishListService.class, WishSearchIndex.class, FragmentCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Entries cached by a transaction are only readable by later ones
+class SecondLevelCacheTest {
+
+    @Autowired
+    private WishService wishService;
+
+    @Autowired
+    private WishListService wishListService;
+
+    @Autowired
+    private WishRepository wishRepository;
+
+    @Autowired
+    private WishListRepository wishListRepository;
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private Statistics statistics;
+    private AppUser owner;
+    private Wish bike;
+    private WishList wishList;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = appUserRepository.save(new AppUser("owner@example.com", "ownerPassword123", "owner"));
+        bike = wishRepository.save(new Wish("Bike", "Red", null));
+        wishList = new WishList("Christmas", LocalDate.of(2024, 12, 24), owner);
+        wishList.setWishes(List.of(bike));
+        wishList = wishListRepository.save(wishList);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (String table : List.of("shared_wishlist_inbox", "wishlist_viewers", "wishlist_wishes", "wish_list", "wishes", "app_user")) {
+            jdbcTemplate.update("delete from " + table);
+        }
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void regions_ShouldBeBoundedBySizeAndTime() {
+        CaffeineConfiguration<?, ?> wishRegion = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager().getCache("wish").getConfiguration(CaffeineConfiguration.class);
+
+        assertEquals(20_000, wishRegion.getMaximumSize().getAsLong());
+        assertEquals(TimeUnit.MINUTES.toNanos(10), wishRegion.getExpireAfterWrite().getAsLong());
+        assertTrue(List.of(statistics.getSecondLevelCacheRegionNames())
+                .containsAll(List.of("wishList", "wish", "appUser", "wishList-wishes", "wishList-viewers")));
+    }
+
+    @Test
+    void getWishById_ShouldBeServedFromCacheOnSecondRead() {
+        // Arrange
+        wishService.getWishById(bike.getId());
+        statistics.clear();
+
+        // Act
+        wishService.getWishById(bike.getId());
+
+        // Assert
+        assertEquals(1, statistics.getCacheRegionStatistics("wish").getHitCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void updateWishes_ShouldEvictTheUpdatedWishes() {
+        // Arrange
+        wishService.getWishById(bike.getId());
+
+        // Act
+        wishService.updateWishes(List.of(new WishUpdate(bike.getId(), "Scooter", "Blue")));
+
+        // Assert
+        assertFalse(entityManagerFactory.getCache().contains(Wish.class, bike.getId()));
+        assertEquals("Scooter", wishService.getWishById(bike.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void shareWishListsWithUsers_ShouldEvictTheCachedViewers() {
+        // Arrange
+        AppUser viewer = appUserRepository.save(new AppUser("viewer@example.com", "viewerPassword123", "viewer"));
+        assertEquals(0, viewerCount(wishList.getId()));
+
+        // Act
+        wishListService.shareWishListsWithUsers(List.of(wishList.getId()), List.of(viewer.getId()));
+
+        // Assert
+        assertEquals(1, viewerCount(wishList.getId()));
+    }
+
+    @Test
+    void deleteWishes_ShouldLeaveUnrelatedRegionsCached() {
+        // Arrange
+        WishList birthday = wishListRepository.save(new WishList("Birthday", LocalDate.of(2024, 6, 1), owner));
+        appUserRepository.findById(owner.getId());
+        wishListRepository.findById(wishList.getId());
+        wishListRepository.findById(birthday.getId());
+
+        // Act
+        wishService.deleteWishes(List.of(bike.getId()));
+
+        // Assert: the wishlist that held the wish has a new version, the other one stays cached
+        assertFalse(entityManagerFactory.getCache().contains(Wish.class, bike.getId()));
+        assertFalse(entityManagerFactory.getCache().contains(WishList.class, wishList.getId()));
+        assertTrue(entityManagerFactory.getCache().contains(AppUser.class, owner.getId()));
+        assertTrue(entityManagerFactory.getCache().contains(WishList.class, birthday.getId()));
+    }
+
+    private int viewerCount(Long wishListId) {
+        return transaction.execute(status -> wishListRepository.findById(wishListId).orElseThrow().getViewers().size());
+    }
+}
@@ -0,0 +1,82 @@
+package wishc1.wishlist.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import wishc1.wishlist.dto.UserDirectoryEntry;
+import wishc1.wishlist.repository.AppUserRepository;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserAvailabilityFilterTest {
+
+    @Mock
+    private AppUserRepository appUserRepository;
+
+    private UserAvailabilityFilter userAvailabilityFilter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userAvailabilityFilter = new UserAvailabilityFilter(appUserRepository, 1_000, 0.01);
+        when(appUserRepository.count()).thenReturn(1L);
+        UserDirectoryEntry alice = entry("alice", "alice@example.com");
+        when(appUserRepository.streamDirectoryEntries()).thenReturn(Stream.of(alice));
+        userAvailabilityFilter.rebuild();
+    }
+
+    @Test
+    void isUsernameAvailable_shouldNotQueryDatabase_whenFilterRulesTheUsernameOut() {
+        assertTrue(userAvailabilityFilter.isUsernameAvailable("bob"));
+        verify(appUserRepository, never()).existsByUsername(any());
+    }
+
+    @Test
+    void isUsernameAvailable_shouldAskDatabase_whenFilterReportsPossibleMatch() {
+        // Arrange
+        when(appUserRepository.existsByUsername("Alice")).thenReturn(true);
+
+        // Act & Assert, the filter ignores case so the database decides
+        assertFalse(userAvailabilityFilter.isUsernameAvailable("Alice"));
+        verify(appUserRepository).existsByUsername("Alice");
+    }
+
+    @Test
+    void isEmailAvailable_shouldSeeUsersAddedAfterRebuild() {
+        // Arrange
+        userAvailabilityFilter.add("bob", "bob@example.com");
+        when(appUserRepository.existsByEmail("bob@example.com")).thenReturn(true);
+
+        // Act & Assert
+        assertFalse(userAvailabilityFilter.isEmailAvailable("bob@example.com"));
+        assertTrue(userAvailabilityFilter.isEmailAvailable("carol@example.com"));
+        verify(appUserRepository, never()).existsByEmail("carol@example.com");
+    }
+
+    @Test
+    void isUsernameAvailable_shouldAskDatabase_beforeFilterIsBuilt() {
+        // Arrange
+        UserAvailabilityFilter unbuilt = new UserAvailabilityFilter(appUserRepository, 1_000, 0.01);
+        when(appUserRepository.existsByUsername("alice")).thenReturn(true);
+
+        // Act & Assert
+        assertFalse(unbuilt.isUsernameAvailable("alice"));
+    }
+
+    @Test
+    void isUsernameAvailable_shouldRejectBlankValues() {
+        assertFalse(userAvailabilityFilter.isUsernameAvailable(" "));
+        verifyNoMoreInteractions(ignoreStubs(appUserRepository));
+    }
+
+    private static UserDirectoryEntry entry(String username, String email) {
+        UserDirectoryEntry entry = mock(UserDirectoryEntry.class);
+        when(entry.getUsername()).thenReturn(username);
+        when(entry.getEmail()).thenReturn(email);
+        return entry;
+    }
+}
@@ -0,0 +1,70 @@
+package wishc1.wishlist.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import wishc1.wishlist.dto.UserSearchResult;
+import wishc1.wishlist.repository.AppUserRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserDirectoryIndexTest {
+
+    @Mock
+    private AppUserRepository appUserRepository;
+
+    @InjectMocks
+    private UserDirectoryIndex userDirectoryIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userDirectoryIndex.add("alice", "alice@example.com");
+        userDirectoryIndex.add("Albert", "bert@example.com");
+        userDirectoryIndex.add("bob", "alfa.bob@example.com");
+    }
+
+    @Test
+    void search_ShouldMatchUsernameAndEmailPrefixesIgnoringCase() {
+        UserSearchResult result = userDirectoryIndex.search("AL", null, 0, 10);
+
+        assertEquals(List.of("Albert", "bob", "alice"), result.usernames());
+        assertFalse(result.hasNext());
+    }
+
+    @Test
+    void search_ShouldListEachUserOnceAndLeaveOutTheExcludedUser() {
+        UserSearchResult result = userDirectoryIndex.search("b", "bob", 0, 10);
+
+        assertEquals(List.of("Albert"), result.usernames());
+    }
+
+    @Test
+    void search_ShouldPaginateMatches() {
+        UserSearchResult firstPage = userDirectoryIndex.search("al", null, 0, 2);
+        UserSearchResult secondPage = userDirectoryIndex.search("al", null, 1, 2);
+
+        assertEquals(List.of("Albert", "bob"), firstPage.usernames());
+        assertTrue(firstPage.hasNext());
+        assertEquals(List.of("alice"), secondPage.usernames());
+        assertFalse(secondPage.hasNext());
+    }
+
+    @Test
+    void search_ShouldReturnAnEmptyPageInsteadOfOverflowingTheOffset() {
+        UserSearchResult result = userDirectoryIndex.search("al", null, 214748365, 10);
+
+        assertTrue(result.usernames().isEmpty());
+        assertFalse(result.hasNext());
+        assertTrue(userDirectoryIndex.search("al", null, Integer.MAX_VALUE, 1).usernames().isEmpty());
+    }
+
+    @Test
+    void search_ShouldReturnNothingForBlankPrefix() {
+        assertTrue(userDirectoryIndex.search("  ", null, 0, 10).usernames().isEmpty());
+    }
+}
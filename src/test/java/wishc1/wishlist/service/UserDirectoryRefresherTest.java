@@ -0,0 +1,87 @@
+package wishc1.wishlist.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import wishc1.wishlist.dto.UserDirectoryEntry;
+import wishc1.wishlist.repository.AppUserRepository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserDirectoryRefresherTest {
+
+    @Mock
+    private AppUserRepository appUserRepository;
+
+    private UserDirectoryIndex userDirectoryIndex;
+    private UserAvailabilityFilter userAvailabilityFilter;
+    private UserDirectoryRefresher userDirectoryRefresher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userDirectoryIndex = new UserDirectoryIndex(appUserRepository);
+        userAvailabilityFilter = new UserAvailabilityFilter(appUserRepository, 1_000, 0.01);
+        UserDirectoryEntry alice = entry(500L, "alice", "alice@example.com");
+        when(appUserRepository.streamDirectoryEntries()).thenReturn(Stream.of(alice));
+        userAvailabilityFilter.rebuild();
+        userDirectoryRefresher = new UserDirectoryRefresher(appUserRepository, userDirectoryIndex, userAvailabilityFilter);
+        when(appUserRepository.findMaxId()).thenReturn(500L);
+        userDirectoryRefresher.start();
+    }
+
+    @Test
+    void refresh_ShouldAddUsersRegisteredOnOtherInstances() {
+        // Arrange
+        UserDirectoryEntry carol = entry(520L, "carol", "carol@example.com");
+        when(appUserRepository.findDirectoryEntriesAfter(400L)).thenReturn(List.of(carol));
+        when(appUserRepository.existsByUsername("carol")).thenReturn(true);
+
+        // Act
+        userDirectoryRefresher.refresh();
+
+        // Assert, the filter no longer rules carol out, so the database is asked
+        assertFalse(userAvailabilityFilter.isUsernameAvailable("carol"));
+        verify(appUserRepository).existsByUsername("carol");
+        assertEquals(List.of("carol"), userDirectoryIndex.search("car", null, 0, 10).usernames());
+    }
+
+    @Test
+    void refresh_ShouldReadTheLastIdsAgainAfterTheHighestSeen() {
+        // Arrange
+        UserDirectoryEntry carol = entry(520L, "carol", "carol@example.com");
+        when(appUserRepository.findDirectoryEntriesAfter(400L)).thenReturn(List.of(carol));
+
+        // Act
+        userDirectoryRefresher.refresh();
+        userDirectoryRefresher.refresh();
+
+        // Assert
+        verify(appUserRepository).findDirectoryEntriesAfter(520L - UserDirectoryRefresher.OVERLAP);
+    }
+
+    @Test
+    void refresh_ShouldDoNothingBeforeTheApplicationHasStarted() {
+        // Arrange
+        UserDirectoryRefresher notStarted = new UserDirectoryRefresher(appUserRepository, userDirectoryIndex, userAvailabilityFilter);
+
+        // Act
+        notStarted.refresh();
+
+        // Assert
+        verify(appUserRepository, never()).findDirectoryEntriesAfter(anyLong());
+    }
+
+    private static UserDirectoryEntry entry(Long id, String username, String email) {
+        UserDirectoryEntry entry = mock(UserDirectoryEntry.class);
+        when(entry.getId()).thenReturn(id);
+        when(entry.getUsername()).thenReturn(username);
+        when(entry.getEmail()).thenReturn(email);
+        return entry;
+    }
+}
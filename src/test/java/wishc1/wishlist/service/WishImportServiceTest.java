@@ -0,0 +1,186 @@
+package wishc1.wishlist.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import wishc1.wishlist.dto.WishImportError;
+import wishc1.wishlist.dto.WishImportProgress;
+import wishc1.wishlist.model.AppUser;
+import wishc1.wishlist.model.Wish;
+import wishc1.wishlist.model.WishList;
+import wishc1.wishlist.repository.AppUserRepository;
+import wishc1.wishlist.repository.WishListRepository;
+import wishc1.wishlist.repository.WishRepository;
+import wishc1.wishlist.view.FragmentCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({WishService.class, WishSearchIndex.class, FragmentCache.class, AccountExportService.class})
+class WishImportServiceTest {
+
+    @Autowired
+    private WishService wishService;
+
+    @Autowired
+    private AccountExportService accountExportService;
+
+    @Autowired
+    private WishRepository wishRepository;
+
+    @Autowired
+    private WishListRepository wishListRepository;
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private WishImportService wishImportService;
+    private final List<WishImportProgress> reports = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        wishImportService = new WishImportService(wishService, 2);
+    }
+
+    @Test
+    void importWishes_Csv_ShouldSaveValidRowsInBatchesAndReportTheOthers() throws Exception {
+        // Arrange: a spreadsheet export with a byte order mark, a quoted field and a blank line
+        String csv = "﻿Name,Description,Added Date,Price\r\n"
+                + "Bike,\"Red, with a \"\"bell\"\"\",2024-11-01,100\r\n"
+                + ",No name,,\r\n"
+                + "Book,,2024-13-45,\r\n"
+                + "\r\n"
+                + "Kite,,2024-11-02T10:15,\r\n"
+                + "Drum,\"Two\nlines\",,\r\n"
+                + "Ball," + "x".repeat(Wish.DESCRIPTION_LENGTH + 1) + ",,\r\n";
+
+        // Act
+        WishImportProgress result = importWishes(csv, ExportFormat.CSV, null);
+
+        // Assert
+        assertEquals(7, result.rowsRead());
+        assertEquals(3, result.imported());
+        assertEquals(3, result.rejected());
+        assertTrue(result.done());
+        assertEquals(List.of(2L, 3L, 7L), reports.stream()
+                .flatMap(report -> report.errors().stream()).map(WishImportError::row).toList());
+        // One report when two errors are pending, one per full batch of two and the final one
+        assertEquals(List.of(false, false, true), reports.stream().map(WishImportProgress::done).toList());
+
+        Wish bike = wishRepository.findByName("Bike").orElseThrow();
+        assertEquals("Red, with a \"bell\"", bike.getDescription());
+        assertEquals(LocalDateTime.of(2024, 11, 1, 0, 0), bike.getAddedDate());
+        assertEquals("Two\nlines", wishRepository.findByName("Drum").orElseThrow().getDescription());
+        assertNotNull(wishRepository.findByName("Drum").orElseThrow().getAddedDate());
+        assertTrue(wishRepository.findByName("Book").isEmpty());
+    }
+
+    @Test
+    void importWishes_MostlyInvalidRows_ShouldReportProgressAndListALimitedNumberOfErrors() throws Exception {
+        // Arrange
+        int rows = WishImportService.MAX_LISTED_ERRORS + 500;
+        String csv = "name,description\n" + ",No name\n".repeat(rows);
+
+        // Act
+        WishImportProgress result = importWishes(csv, ExportFormat.CSV, null);
+
+        // Assert
+        assertEquals(rows, result.rejected());
+        assertTrue(reports.size() > WishImportService.MAX_LISTED_ERRORS / 2, "a report for every two pending errors");
+        assertTrue(reports.stream().allMatch(report -> report.errors().size() <= 2));
+        List<WishImportError> errors = reports.stream().flatMap(report -> report.errors().stream()).toList();
+        assertEquals(WishImportService.MAX_LISTED_ERRORS + 1, errors.size());
+        assertTrue(errors.get(errors.size() - 1).message().startsWith("More rows were rejected"));
+    }
+
+    @Test
+    void importWishes_Json_ShouldAddTheWishesToTheWishList() throws Exception {
+        // Arrange
+        AppUser owner = appUserRepository.save(new AppUser("owner@example.com", "ownerPassword123", "owner"));
+        WishList christmas = wishListRepository.saveAndFlush(new WishList("Christmas", LocalDate.of(2024, 12, 24), owner));
+        long versionBefore = christmas.getVersion();
+        String json = """
+                [{"name": "Bike", "description": "Red", "tags": ["outdoor"]},
+                 {"name": "Book", "price": 12.5},
+                 {"name": "Kite", "addedDate": null}]
+                """;
+
+        // Act
+        WishImportProgress result = importWishes(json, ExportFormat.JSON, christmas.getId());
+        entityManager.clear();
+
+        // Assert
+        assertEquals(3, result.imported());
+        WishList reloaded = wishListRepository.findWithWishesById(christmas.getId()).orElseThrow();
+        assertEquals(List.of("Bike", "Book", "Kite"), reloaded.getWishes().stream().map(Wish::getName).sorted().toList());
+        assertTrue(reloaded.getVersion() > versionBefore);
+    }
+
+    @Test
+    void importWishes_ShouldReadAnAccountExportAndSkipItsViewerRows() throws Exception {
+        // Arrange
+        AppUser owner = appUserRepository.save(new AppUser("owner@example.com", "ownerPassword123", "owner"));
+        AppUser viewer = appUserRepository.save(new AppUser("viewer@example.com", "viewerPassword123", "viewer"));
+        WishList christmas = new WishList("Christmas", LocalDate.of(2024, 12, 24), owner);
+        christmas.addWish(wishRepository.save(new Wish("Bike", "Red, fast", LocalDateTime.of(2024, 11, 1, 9, 30))));
+        christmas.addWish(wishRepository.save(new Wish("=1+1", "-", null)));
+        christmas.addViewer(viewer);
+        wishListRepository.save(christmas);
+        wishListRepository.save(new WishList("Empty", LocalDate.of(2025, 1, 1), owner));
+        entityManager.flush();
+        ByteArrayOutputStream export = new ByteArrayOutputStream();
+        accountExportService.export(owner.getId(), ExportFormat.CSV, export);
+
+        // Act
+        WishImportProgress result = importWishes(export.toString(StandardCharsets.UTF_8), ExportFormat.CSV, null);
+
+        // Assert: the wish rows are imported, the empty wishlist and the viewer rows are skipped
+        assertEquals(4, result.rowsRead());
+        assertEquals(2, result.imported());
+        assertEquals(0, result.rejected());
+        List<Wish> bikes = wishRepository.findAll().stream().filter(wish -> wish.getName().equals("Bike")).toList();
+        assertEquals(2, bikes.size());
+        assertTrue(bikes.stream().allMatch(wish -> wish.getDescription().equals("Red, fast")
+                && wish.getAddedDate().equals(LocalDateTime.of(2024, 11, 1, 9, 30))));
+        assertEquals(2, wishRepository.findAll().stream()
+                .filter(wish -> wish.getName().equals("=1+1") && wish.getDescription().equals("-")).count());
+    }
+
+    @Test
+    void importWishes_MalformedJson_ShouldKeepTheRowsBeforeTheError() throws Exception {
+        // Act
+        WishImportProgress result = importWishes("[{\"name\": \"Bike\"}, {\"name\": ", ExportFormat.JSON, null);
+
+        // Assert
+        assertEquals(1, result.imported());
+        assertEquals(1, result.errors().size());
+        assertEquals(2, result.errors().get(0).row());
+        assertTrue(result.errors().get(0).message().startsWith("The file could not be read"));
+        assertTrue(wishRepository.findByName("Bike").isPresent());
+    }
+
+    private WishImportProgress importWishes(String upload, ExportFormat format, Long wishListId) throws Exception {
+        try (InputStream in = new ByteArrayInputStream(upload.getBytes(StandardCharsets.UTF_8))) {
+            return wishImportService.importWishes(in, format, wishListId, reports::add);
+        }
+    }
+}
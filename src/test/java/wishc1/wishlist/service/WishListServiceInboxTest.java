@@ -0,0 +1,110 @@
+package wishc1.wishlist.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import wishc1.wishlist.model.AppUser;
+import wishc1.wishlist.model.SharedWishListEntry;
+import wishc1.wishlist.model.WishList;
+import wishc1.wishlist.repository.AppUserRepository;
+import wishc1.wishlist.repository.WishListFetchPlan;
+import wishc1.wishlist.repository.WishListRepository;
+import wishc1.wishlist.view.FragmentCache;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({WishListService.class, WishService.class, WishSearchIndex.class, FragmentCache.class})
+class WishListServiceInboxTest {
+
+    @Autowired
+    private WishListService wishListService;
+
+    @Autowired
+    private WishListRepository wishListRepository;
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private AppUser viewer;
+    private WishList christmas;
+    private WishList birthday;
+
+    @BeforeEach
+    void setUp() {
+        AppUser owner = appUserRepository.save(new AppUser("owner@example.com", "ownerPassword123", "owner"));
+        viewer = appUserRepository.save(new AppUser("viewer@example.com", "viewerPassword123", "viewer"));
+        christmas = wishListRepository.save(new WishList("Christmas", LocalDate.of(2024, 12, 24), owner));
+        birthday = wishListRepository.save(new WishList("Birthday", LocalDate.of(2024, 6, 1), owner));
+    }
+
+    @Test
+    void shareWishListsWithUsers_ShouldAddInboxEntriesOrderedByEventDate() {
+        // Act
+        wishListService.shareWishListsWithUsers(List.of(christmas.getId(), birthday.getId()), List.of(viewer.getId()));
+        wishListService.shareWishListsWithUsers(List.of(christmas.getId()), List.of(viewer.getId()));
+
+        // Assert
+        List<SharedWishListEntry> inbox = wishListService.getSharedWishListInbox(viewer.getId());
+        assertEquals(List.of("Birthday", "Christmas"), inbox.stream().map(SharedWishListEntry::getEventName).toList());
+        assertEquals("owner", inbox.get(0).getOwnerUsername());
+        assertEquals(birthday.getId(), inbox.get(0).getWishListId());
+    }
+
+    @Test
+    void unshareWishListWithUser_ShouldRemoveGrantAndInboxEntry() {
+        // Arrange
+        wishListService.shareWishListWithUser(christmas, viewer);
+        WishList loaded = wishListService.getWishListById(christmas.getId(), WishListFetchPlan.WITH_VIEWERS).orElseThrow();
+
+        // Act
+        wishListService.unshareWishListWithUser(loaded, viewer);
+        wishListRepository.flush();
+
+        // Assert
+        assertTrue(wishListService.getSharedWishListInbox(viewer.getId()).isEmpty());
+        assertFalse(wishListService.isSharedWithUser(christmas.getId(), viewer.getId()));
+    }
+
+    @Test
+    void deleteWishListById_ShouldRemoveInboxEntries() {
+        // Arrange
+        wishListService.shareWishListsWithUsers(List.of(christmas.getId(), birthday.getId()), List.of(viewer.getId()));
+
+        // Act
+        wishListService.deleteWishListById(christmas.getId());
+        wishListRepository.flush();
+
+        // Assert
+        List<SharedWishListEntry> inbox = wishListService.getSharedWishListInbox(viewer.getId());
+        assertEquals(List.of(birthday.getId()), inbox.stream().map(SharedWishListEntry::getWishListId).toList());
+    }
+
+    @Test
+    void backfillSharedInbox_ShouldCopyGrantsWrittenWithoutTheInbox() {
+        // Arrange
+        jdbcTemplate.update("insert into wishlist_viewers (wishlist_id, user_id) values (?, ?)", christmas.getId(), viewer.getId());
+
+        // Act
+        wishListService.backfillSharedInbox();
+        wishListService.backfillSharedInbox();
+
+        // Assert
+        List<SharedWishListEntry> inbox = wishListService.getSharedWishListInbox(viewer.getId());
+        assertEquals(1, inbox.size());
+        assertEquals("Christmas", inbox.get(0).getEventName());
+    }
+}
@@ -0,0 +1,78 @@
+package wishc1.wishlist.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import wishc1.wishlist.dto.KeysetPage;
+import wishc1.wishlist.dto.WishListSummary;
+import wishc1.wishlist.model.AppUser;
+import wishc1.wishlist.model.WishList;
+import wishc1.wishlist.repository.AppUserRepository;
+import wishc1.wishlist.repository.WishListRepository;
+import wishc1.wishlist.view.FragmentCache;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({WishListService.class, WishService.class, WishSearchIndex.class, FragmentCache.class})
+class WishListServicePagingTest {
+
+    @Autowired
+    private WishListService wishListService;
+
+    @Autowired
+    private WishListRepository wishListRepository;
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    private AppUser owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = appUserRepository.save(new AppUser("owner@example.com", "ownerPassword123", "owner"));
+        wishListRepository.saveAll(List.of(
+                new WishList("Christmas", LocalDate.of(2024, 12, 24), owner),
+                new WishList("Someday", null, owner),
+                new WishList("Birthday", LocalDate.of(2024, 6, 1), owner),
+                new WishList("Whenever", null, owner),
+                new WishList("Wedding", LocalDate.of(2024, 6, 1), owner)));
+    }
+
+    @Test
+    void getWishListsByOwner_ShouldPageThroughUndatedWishListsWithoutGapsOrRepeats() {
+        assertEquals(List.of("Someday", "Whenever", "Birthday", "Wedding", "Christmas"), allEventNames(1));
+        assertEquals(List.of("Someday", "Whenever", "Birthday", "Wedding", "Christmas"), allEventNames(2));
+    }
+
+    @Test
+    void getWishListsByOwner_ShouldEndTheCursorOfAnUndatedWishListWithItsId() {
+        // Act
+        KeysetPage<WishListSummary> page = wishListService.getWishListsByOwner(owner.getId(), null, 1);
+
+        // Assert
+        assertEquals("_" + page.content().get(0).getId(), page.nextCursor());
+    }
+
+    private List<String> allEventNames(int pageSize) {
+        List<String> names = new ArrayList<>();
+        String after = null;
+        do {
+            KeysetPage<WishListSummary> page = wishListService.getWishListsByOwner(owner.getId(), after, pageSize);
+            assertTrue(page.content().size() <= pageSize);
+            page.content().forEach(summary -> names.add(summary.getEventName()));
+            after = page.nextCursor();
+        } while (after != null && names.size() <= 5);
+        return names;
+    }
+}
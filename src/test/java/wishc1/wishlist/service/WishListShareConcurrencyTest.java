@@ -0,0 +1,99 @@
+package wishc1.wishlist.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import wishc1.wishlist.model.AppUser;
+import wishc1.wishlist.model.WishList;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Shares the same wishlists with the same users from many threads at once, as a double-submitted
+ * share form does; every request must succeed and each grant must be written once.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = "wishlist.password.bcrypt-strength=4")
+class WishListShareConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private WishListService wishListService;
+
+    @Autowired
+    private AppUserService appUserService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Long> wishListIds;
+    private List<Long> viewerIds;
+
+    @BeforeEach
+    void setUp() {
+        AppUser owner = register();
+        wishListIds = List.of(
+                wishListService.saveWishList(new WishList("Christmas", LocalDate.of(2024, 12, 24), owner)).getId(),
+                wishListService.saveWishList(new WishList("Birthday", LocalDate.of(2024, 6, 1), owner)).getId());
+        viewerIds = List.of(register().getId(), register().getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        wishListIds.forEach(wishListService::deleteWishListById);
+    }
+
+    @Test
+    void shareWishListsWithUsers_SameGrantsFromManyThreads_ShouldWriteEachGrantOnce() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        int newGrants = 0;
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return wishListService.shareWishListsWithUsers(wishListIds, viewerIds);
+                }));
+            }
+
+            // Act
+            start.countDown();
+            for (Future<Integer> future : futures) {
+                newGrants += future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertEquals(4, newGrants);
+        assertEquals(4, count("wishlist_viewers"));
+        assertEquals(4, count("shared_wishlist_inbox"));
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table + " where wishlist_id in (?, ?)",
+                Integer.class, wishListIds.get(0), wishListIds.get(1));
+    }
+
+    private AppUser register() {
+        String name = "s" + UUID.randomUUID().toString().substring(0, 8);
+        return appUserService.saveUser(new AppUser(name + "@example.com", "password123", name));
+    }
+}
@@ -0,0 +1,125 @@
+package wishc1.wishlist.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import wishc1.wishlist.dto.WishUpdate;
+import wishc1.wishlist.model.AppUser;
+import wishc1.wishlist.model.Wish;
+import wishc1.wishlist.model.WishList;
+import wishc1.wishlist.repository.AppUserRepository;
+import wishc1.wishlist.repository.WishListFetchPlan;
+import wishc1.wishlist.repository.WishListRepository;
+import wishc1.wishlist.view.FragmentCache;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({WishListService.class, WishService.class, WishSearchIndex.class, FragmentCache.class})
+class WishListVersionTest {
+
+    @Autowired
+    private WishListService wishListService;
+
+    @Autowired
+    private WishService wishService;
+
+    @Autowired
+    private WishListRepository wishListRepository;
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private AppUser viewer;
+    private WishList christmas;
+    private Wish bike;
+
+    @BeforeEach
+    void setUp() {
+        AppUser owner = appUserRepository.save(new AppUser("owner@example.com", "ownerPassword123", "owner"));
+        viewer = appUserRepository.save(new AppUser("viewer@example.com", "viewerPassword123", "viewer"));
+        bike = wishService.addWish(new Wish("Bike", "A red bike", null));
+        christmas = new WishList("Christmas", LocalDate.of(2024, 12, 24), owner);
+        christmas.addWish(bike);
+        christmas = wishListRepository.saveAndFlush(christmas);
+        entityManager.clear();
+    }
+
+    @Test
+    void addWishToWishList_ShouldBumpVersionAndLastModified() {
+        // Arrange
+        WishList before = reload();
+        long versionBefore = before.getVersion();
+        Instant lastModifiedBefore = before.getLastModified();
+        Wish book = wishService.addWish(new Wish("Book", "A novel", null));
+
+        // Act
+        wishListService.addWishToWishList(wishListService.getWishListById(christmas.getId(), WishListFetchPlan.WITH_WISHES).orElseThrow(), book);
+        entityManager.flush();
+
+        // Assert
+        WishList after = reload();
+        assertTrue(after.getVersion() > versionBefore);
+        assertTrue(after.getLastModified().isAfter(lastModifiedBefore));
+    }
+
+    @Test
+    void shareWishListsWithUsers_ShouldBumpVersionOfSharedWishLists() {
+        // Arrange
+        long before = reload().getVersion();
+
+        // Act
+        wishListService.shareWishListsWithUsers(List.of(christmas.getId()), List.of(viewer.getId()));
+        long afterFirstShare = reload().getVersion();
+        wishListService.shareWishListsWithUsers(List.of(christmas.getId()), List.of(viewer.getId()));
+
+        // Assert: only a new grant changes the wishlist
+        assertTrue(afterFirstShare > before);
+        assertEquals(afterFirstShare, reload().getVersion());
+    }
+
+    @Test
+    void updateWishes_ShouldBumpVersionOfWishListsContainingTheWish() {
+        // Arrange
+        long before = reload().getVersion();
+
+        // Act
+        wishService.updateWishes(List.of(new WishUpdate(bike.getId(), "Blue bike", "A blue bike")));
+
+        // Assert
+        assertTrue(reload().getVersion() > before);
+    }
+
+    @Test
+    void deleteWishes_ShouldBumpVersionOfWishListsThatHeldTheWish() {
+        // Arrange
+        long before = reload().getVersion();
+
+        // Act
+        wishService.deleteWishes(List.of(bike.getId()));
+
+        // Assert
+        assertTrue(reload().getVersion() > before);
+    }
+
+    private WishList reload() {
+        entityManager.flush();
+        entityManager.clear();
+        return wishListRepository.findById(christmas.getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,88 @@
+package wishc1.wishlist.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import wishc1.wishlist.repository.WishRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WishSearchIndexTest {
+
+    @Mock
+    private WishRepository wishRepository;
+
+    @InjectMocks
+    private WishSearchIndex wishSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        wishSearchIndex.index(1L, "Red bike", "A bike with a basket");
+        wishSearchIndex.index(2L, "Helmet", "Goes with the red bike");
+        wishSearchIndex.index(3L, "Blåbærsyltetøj", "Hjemmelavet, fra Ålborg");
+        wishSearchIndex.index(4L, "Café crème", "Mugs for coffee");
+    }
+
+    @Test
+    void search_ShouldRankNameMatchesAboveDescriptionMatches() {
+        assertEquals(List.of(1L, 2L), wishSearchIndex.search("BIKE", 0, 10));
+    }
+
+    @Test
+    void search_ShouldRequireEveryTerm() {
+        assertEquals(List.of(2L), wishSearchIndex.search("red helmet", 0, 10));
+        assertTrue(wishSearchIndex.search("bike coffee", 0, 10).isEmpty());
+    }
+
+    @Test
+    void search_ShouldMatchTermPrefixes() {
+        assertEquals(List.of(2L), wishSearchIndex.search("helm", 0, 10));
+    }
+
+    @Test
+    void search_ShouldIgnoreAccentsAndSpelledOutDanishLetters() {
+        assertEquals(List.of(3L), wishSearchIndex.search("blaabaersyltetoej", 0, 10));
+        assertEquals(List.of(3L), wishSearchIndex.search("aalborg", 0, 10));
+        assertEquals(List.of(4L), wishSearchIndex.search("cafe creme", 0, 10));
+    }
+
+    @Test
+    void search_ShouldPaginateRankedMatches() {
+        assertEquals(List.of(1L), wishSearchIndex.search("bike", 0, 1));
+        assertEquals(List.of(2L), wishSearchIndex.search("bike", 1, 1));
+        assertTrue(wishSearchIndex.search("bike", 2, 1).isEmpty());
+    }
+
+    @Test
+    void search_ShouldReturnNothingWhenOffsetPlusLimitOverflows() {
+        assertTrue(wishSearchIndex.search("bike", Integer.MAX_VALUE, 10).isEmpty());
+        assertEquals(List.of(2L), wishSearchIndex.search("bike", 1, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void index_ShouldReplaceTheTermsOfAnIndexedWish() {
+        wishSearchIndex.index(1L, "Scooter", "Blue");
+
+        assertEquals(List.of(2L), wishSearchIndex.search("bike", 0, 10));
+        assertEquals(List.of(1L), wishSearchIndex.search("scooter", 0, 10));
+        assertEquals(4, wishSearchIndex.size());
+    }
+
+    @Test
+    void remove_ShouldDropTheWishFromResults() {
+        wishSearchIndex.remove(List.of(1L, 2L));
+
+        assertTrue(wishSearchIndex.search("bike", 0, 10).isEmpty());
+        assertEquals(2, wishSearchIndex.size());
+    }
+
+    @Test
+    void search_ShouldReturnNothingForBlankQuery() {
+        assertTrue(wishSearchIndex.search(" ,. ", 0, 10).isEmpty());
+    }
+}
@@ -0,0 +1,104 @@
+package wishc1.wishlist.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import wishc1.wishlist.dto.ReadyWish;
+import wishc1.wishlist.model.AppUser;
+import wishc1.wishlist.model.Wish;
+import wishc1.wishlist.model.WishList;
+import wishc1.wishlist.repository.AppUserRepository;
+import wishc1.wishlist.repository.WishListRepository;
+import wishc1.wishlist.repository.WishRepository;
+import wishc1.wishlist.view.FragmentCache;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the JDBC round trips of the "ready wishes -> finalize" flow, which creates a wishlist
+ * from the wishes drafted in the session, when the wishes and join rows are written one by one
+ * against the batched WishListService.saveWishList path.
+ */
+@ActiveProfiles("test")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({WishListService.class, WishService.class, WishSearchIndex.class, FragmentCache.class})
+class WishServiceBatchInsertTest {
+
+    private static final int DRAFT_SIZE = 200;
+
+    @Autowired
+    private WishListService wishListService;
+
+    @Autowired
+    private WishRepository wishRepository;
+
+    @Autowired
+    private WishListRepository wishListRepository;
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private AppUser owner;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = appUserRepository.save(new AppUser("owner@example.com", "ownerPassword123", "owner"));
+    }
+
+    @Test
+    void saveWishList_ShouldNeedFarFewerRoundTripsThanRowByRowSaves() {
+        // Row by row: every wish and join row is written before the next one, as with IDENTITY ids
+        WishList rowByRow = new WishList("Row by row", LocalDate.of(2024, 12, 24), owner);
+        statistics.clear();
+        wishListRepository.saveAndFlush(rowByRow);
+        for (Wish wish : readyWishes("row")) {
+            rowByRow.addWish(wishRepository.save(wish));
+            wishListRepository.save(rowByRow);
+            entityManager.flush();
+        }
+        long rowByRowStatements = statistics.getPrepareStatementCount();
+
+        // Batched: one transaction, pooled ids and JDBC insert batches for wishes and join rows
+        WishList batched = new WishList("Batched", LocalDate.of(2024, 12, 24), owner);
+        readyWishes("batch").forEach(batched::addWish);
+        statistics.clear();
+        wishListService.saveWishList(batched);
+        entityManager.flush();
+        long batchedStatements = statistics.getPrepareStatementCount();
+
+        entityManager.clear();
+        assertEquals(2L * DRAFT_SIZE, wishRepository.count());
+        assertEquals(DRAFT_SIZE, wishListRepository.findWithWishesById(batched.getId()).orElseThrow()
+                .getWishes().size());
+        assertTrue(batchedStatements * 10 < rowByRowStatements,
+                "Batched finalize needed " + batchedStatements + " statements, row by row " + rowByRowStatements);
+    }
+
+    private static List<Wish> readyWishes(String prefix) {
+        return IntStream.range(0, DRAFT_SIZE)
+                .mapToObj(i -> new ReadyWish(prefix + " wish " + i, "Description " + i, null).toWish())
+                .toList();
+    }
+}
@@ -0,0 +1,94 @@
+package wishc1.wishlist.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import wishc1.wishlist.dto.BulkOperationResult;
+import wishc1.wishlist.dto.WishUpdate;
+import wishc1.wishlist.model.AppUser;
+import wishc1.wishlist.model.Wish;
+import wishc1.wishlist.model.WishList;
+import wishc1.wishlist.repository.AppUserRepository;
+import wishc1.wishlist.repository.WishListRepository;
+import wishc1.wishlist.repository.WishRepository;
+import wishc1.wishlist.view.FragmentCache;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({WishService.class, WishSearchIndex.class, FragmentCache.class})
+class WishServiceBulkOperationsTest {
+
+    @Autowired
+    private WishService wishService;
+
+    @Autowired
+    private WishRepository wishRepository;
+
+    @Autowired
+    private WishListRepository wishListRepository;
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Wish bike;
+    private Wish book;
+
+    @BeforeEach
+    void setUp() {
+        bike = wishRepository.save(new Wish("Bike", "Red", null));
+        book = wishRepository.save(new Wish("Book", "Thick", null));
+        AppUser owner = appUserRepository.save(new AppUser("owner@example.com", "ownerPassword123", "owner"));
+        WishList wishList = new WishList("Christmas", LocalDate.of(2024, 12, 24), owner);
+        wishList.setWishes(List.of(bike, book));
+        wishListRepository.save(wishList);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void deleteWishes_ShouldDeleteWishesAndTheirWishlistLinksAndReportMissingIds() {
+        BulkOperationResult result = wishService.deleteWishes(List.of(bike.getId(), book.getId(), -1L));
+
+        assertEquals(2, result.affected());
+        assertEquals(List.of(-1L), result.missingIds());
+        assertEquals(0, wishRepository.count());
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from wishlist_wishes", Integer.class));
+    }
+
+    @Test
+    void deleteWish_ShouldThrow_WhenWishDoesNotExist() {
+        assertThrows(RuntimeException.class, () -> wishService.deleteWish(-1L));
+    }
+
+    @Test
+    void updateWishes_ShouldUpdateInOneBatchAndReportMissingIds() {
+        BulkOperationResult result = wishService.updateWishes(List.of(
+                new WishUpdate(bike.getId(), "Blue bike", "Blue"),
+                new WishUpdate(-1L, "Ghost", "Does not exist")));
+
+        assertEquals(1, result.affected());
+        assertEquals(List.of(-1L), result.missingIds());
+        entityManager.clear();
+        Wish updated = wishRepository.findById(bike.getId()).orElseThrow();
+        assertEquals("Blue bike", updated.getName());
+        assertEquals("Blue", updated.getDescription());
+    }
+}
@@ -0,0 +1,86 @@
+package wishc1.wishlist.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import wishc1.wishlist.dto.KeysetPage;
+import wishc1.wishlist.model.Wish;
+import wishc1.wishlist.repository.WishRepository;
+import wishc1.wishlist.repository.WishSort;
+import wishc1.wishlist.view.FragmentCache;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({WishService.class, WishSearchIndex.class, FragmentCache.class})
+class WishServiceCatalogTest {
+
+    @Autowired
+    private WishService wishService;
+
+    @Autowired
+    private WishRepository wishRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime monday = LocalDateTime.of(2024, 12, 2, 10, 0);
+        wishRepository.saveAll(List.of(
+                new Wish("Kite", null, monday),
+                new Wish("Ball_red", null, monday.plusDays(1)),
+                new Wish("Ball", null, monday.plusDays(1)),
+                new Wish("Apple", null, null),
+                new Wish("Drum", null, monday.plusDays(2)),
+                new Wish("Cello", null, null)));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void getWishPage_ShouldPageByNameWithoutGapsOrRepeats() {
+        assertEquals(List.of("Apple", "Ball", "Ball_red", "Cello", "Drum", "Kite"), allNames(WishSort.NAME, 4));
+    }
+
+    @Test
+    void getWishPage_ShouldPageNewestFirstWithUndatedWishesLast() {
+        assertEquals(List.of("Drum", "Ball", "Ball_red", "Kite", "Cello", "Apple"), allNames(WishSort.ADDED_DATE, 2));
+    }
+
+    @Test
+    void getWishPage_ShouldPageByCreationOrder() {
+        assertEquals(List.of("Kite", "Ball_red", "Ball", "Apple", "Drum", "Cello"), allNames(WishSort.ID, 5));
+    }
+
+    @Test
+    void getWishPage_ShouldStartOverForAnUnreadableCursor() {
+        KeysetPage<Wish> page = wishService.getWishPage(WishSort.ADDED_DATE, "x_not-a-date", 2);
+
+        assertEquals(List.of("Drum", "Ball"), page.content().stream().map(Wish::getName).toList());
+        assertTrue(page.hasNext());
+    }
+
+    private List<String> allNames(WishSort sort, int pageSize) {
+        List<String> names = new ArrayList<>();
+        String after = null;
+        do {
+            KeysetPage<Wish> page = wishService.getWishPage(sort, after, pageSize);
+            assertTrue(page.content().size() <= pageSize);
+            page.content().forEach(wish -> names.add(wish.getName()));
+            after = page.nextCursor();
+        } while (after != null);
+        return names;
+    }
+}
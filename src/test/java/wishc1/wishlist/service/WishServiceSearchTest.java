@@ -0,0 +1,91 @@
+package wishc1.wishlist.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import wishc1.wishlist.dto.WishSearchResult;
+import wishc1.wishlist.dto.WishUpdate;
+import wishc1.wishlist.model.Wish;
+import wishc1.wishlist.view.FragmentCache;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({WishService.class, WishSearchIndex.class, FragmentCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // The index follows committed changes only
+class WishServiceSearchTest {
+
+    @Autowired
+    private WishService wishService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from wishes");
+    }
+
+    @Test
+    void searchWishes_ShouldFollowAddsUpdatesAndDeletes() {
+        // Arrange
+        wishService.addWishes(List.of(new Wish("Red bike", "With a basket", null), new Wish("Helmet", "For the bike", null)));
+        Wish kite = wishService.addWish(new Wish("Kite", "Dragen fra Ærø", null));
+
+        // Act & Assert
+        assertEquals(List.of("Red bike", "Helmet"), names(wishService.searchWishes("bike", 0, 10)));
+        assertEquals(List.of("Kite"), names(wishService.searchWishes("aeroe", 0, 10)));
+
+        wishService.updateWishes(List.of(new WishUpdate(kite.getId(), "Drage", "Fra Ærø")));
+        assertTrue(wishService.searchWishes("kite", 0, 10).wishes().isEmpty());
+        assertEquals(List.of("Drage"), names(wishService.searchWishes("drage", 0, 10)));
+
+        wishService.deleteWishes(List.of(kite.getId()));
+        assertTrue(wishService.searchWishes("drage", 0, 10).wishes().isEmpty());
+    }
+
+    @Test
+    void searchWishes_ShouldPageThroughMatches() {
+        // Arrange
+        wishService.addWishes(List.of(new Wish("Book one", null, null), new Wish("Book two", null, null),
+                new Wish("Book three", null, null)));
+
+        // Act
+        WishSearchResult firstPage = wishService.searchWishes("book", 0, 2);
+        WishSearchResult secondPage = wishService.searchWishes("book", 1, 2);
+
+        // Assert
+        assertEquals(2, firstPage.wishes().size());
+        assertTrue(firstPage.hasNext());
+        assertEquals(1, secondPage.wishes().size());
+        assertFalse(secondPage.hasNext());
+    }
+
+    @Test
+    void searchWishes_ShouldReturnAnEmptyPageForAPageNumberBeyondAnyOffset() {
+        // Arrange
+        wishService.addWish(new Wish("Atlas", null, null));
+
+        // Act
+        WishSearchResult result = wishService.searchWishes("atlas", 200_000_000, 100);
+
+        // Assert
+        assertTrue(result.wishes().isEmpty());
+        assertFalse(result.hasNext());
+    }
+
+    private static List<String> names(WishSearchResult result) {
+        return result.wishes().stream().map(Wish::getName).toList();
+    }
+}
@@ -0,0 +1,88 @@
+package wishc1.wishlist.view;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.LazyContextVariable;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FragmentCacheDialectTest {
+
+    private static final String TEMPLATE = """
+            <html xmlns:th="http://www.thymeleaf.org" xmlns:wl="http://www.thymeleaf.org/extras/wishlist">
+            <h1 th:text="${title}">Title</h1>
+            <ul wl:cache="${'wishList:' + id}" wl:cache-version="${version}">
+            <li th:each="wish : ${wishes}" th:text="${wish}">Wish</li>
+            </ul>
+            </html>""";
+
+    private FragmentCache fragmentCache;
+    private SpringTemplateEngine templateEngine;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        fragmentCache = new FragmentCache(DataSize.ofMegabytes(1), Duration.ofMinutes(10));
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(new StringTemplateResolver());
+        templateEngine.addDialect(new FragmentCacheDialect(fragmentCache));
+    }
+
+    @Test
+    void cachedFragment_ShouldBeRenderedOncePerVersionAndLocale() {
+        // Act
+        String first = render("Christmas", 1, Locale.ENGLISH, List.of("Bike", "[[${title}]]"));
+        String second = render("Birthday", 1, Locale.ENGLISH, List.of("Book"));
+        String otherLocale = render("Christmas", 1, Locale.forLanguageTag("da"), List.of("Bike"));
+        String nextVersion = render("Christmas", 2, Locale.ENGLISH, List.of("Kite"));
+
+        // Assert: the fragment comes from the cache, the rest of the page is rendered every time
+        assertEquals(3, loads.get());
+        assertTrue(first.contains("<li>Bike</li>") && first.contains("<li>[[${title}]]</li>"));
+        assertTrue(second.contains("<h1>Birthday</h1>"));
+        assertTrue(second.contains("<li>Bike</li>") && second.contains("<li>[[${title}]]</li>"));
+        assertFalse(second.contains("wl:cache"));
+        assertFalse(second.contains("xmlns:wl"));
+        assertTrue(otherLocale.contains("<li>Bike</li>"));
+        assertTrue(nextVersion.contains("<li>Kite</li>") && !nextVersion.contains("Bike"));
+    }
+
+    @Test
+    void evictWishLists_ShouldDropTheFragmentsOfTheWishList() {
+        // Arrange
+        render("Christmas", 1, Locale.ENGLISH, List.of("Bike"));
+
+        // Act
+        fragmentCache.evictWishLists(List.of(7L));
+        String after = render("Christmas", 1, Locale.ENGLISH, List.of("Book"));
+
+        // Assert
+        assertEquals(1, fragmentCache.size());
+        assertEquals(2, loads.get());
+        assertTrue(after.contains("<li>Book</li>"));
+    }
+
+    private String render(String title, long version, Locale locale, List<String> wishes) {
+        Context context = new Context(locale);
+        context.setVariable("title", title);
+        context.setVariable("id", 7L);
+        context.setVariable("version", version);
+        context.setVariable("wishes", new LazyContextVariable<List<String>>() {
+            @Override
+            protected List<String> loadValue() {
+                loads.incrementAndGet();
+                return wishes;
+            }
+        });
+        return templateEngine.process(TEMPLATE, context);
+    }
+}